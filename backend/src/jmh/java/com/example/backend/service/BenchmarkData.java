@@ -0,0 +1,64 @@
+package com.example.backend.service;
+
+import com.example.datagen.DataFileGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Shared setup for the backend benchmarks: writes seeded data files and builds a {@link CodeDataService}
+ * outside of Spring.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Writes a data file with the default shape of {@link DataFileGenerator}: one in 8 names and one in 64 types
+     * Base64-encoded, no duplicate or malformed rows.
+     *
+     * @param rows The number of data rows.
+     * @param seed The random seed; the same seed always produces the same file.
+     * @return The temporary file, deleted on exit.
+     */
+    static Path writeDataFile(int rows, long seed) throws IOException {
+        Path file = Files.createTempFile("benchmark-data-" + rows + "-", ".json");
+        file.toFile().deleteOnExit();
+        DataFileGenerator.write(DataFileGenerator.Settings.defaults(rows, seed), file);
+        return file;
+    }
+
+    /**
+     * Builds a service that reads the given file, with reloads disabled and no reachable Base64 service.
+     *
+     * @param dataFile The data file.
+     * @param storageMode How rows are held in memory.
+     * @param decodeMode How Base64 fields are decoded.
+     * @return The service; {@code loadData} has not been called yet.
+     */
+    static CodeDataService newService(Path dataFile, CodeStorageMode storageMode, DecodeMode decodeMode) {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Base64ServiceClient client = new Base64ServiceClient(new RestTemplateBuilder(), meterRegistry, "http://localhost:0",
+                false, false, 100, 100, 1, 60_000, "base64-service",
+                new StaticListableBeanFactory().getBeanProvider(ClientRegistrationRepository.class));
+        CodeDataService service = new CodeDataService(new ObjectMapper(), client, meterRegistry);
+        ReflectionTestUtils.setField(service, "dataFilePath", dataFile.toString());
+        ReflectionTestUtils.setField(service, "base64ServiceUrl", "http://localhost:0");
+        ReflectionTestUtils.setField(service, "storageMode", storageMode);
+        ReflectionTestUtils.setField(service, "decodeMode", decodeMode);
+        ReflectionTestUtils.setField(service, "decodeBatchSize", 1000);
+        ReflectionTestUtils.setField(service, "decodeParallelism", 4);
+        ReflectionTestUtils.setField(service, "decodeInitialBackoffMs", 1000L);
+        ReflectionTestUtils.setField(service, "decodeMaxBackoffMs", 60_000L);
+        return service;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.Code;
+import com.example.backend.dto.OrderByDirection;
+import com.example.backend.dto.OrderByField;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the {@link CodeDataService} hot paths on generated data files of 10^3 to 10^7 rows.
+ * <p>
+ * Each benchmark only iterates the parameters of the states it uses, so {@code orderBy} and {@code direction}
+ * multiply the sorted listing runs only. Narrow a run with {@code -p}, e.g. {@code -p rows=1000000}.
+ * At 10^7 rows the heap store needs several GB; pass {@code -jvmArgsAppend -Xmx8g} or
+ * {@code -p storageMode=compact}. Run with {@code -prof gc} for allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodeDataServiceBenchmark {
+
+    /**
+     * A generated data file and a service configured to read it.
+     */
+    @State(Scope.Benchmark)
+    public static class DataFile {
+
+        @Param({"1000", "10000", "100000", "1000000", "10000000"})
+        public int rows;
+
+        @Param({"heap"})
+        public CodeStorageMode storageMode;
+
+        CodeDataService service;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            Path file = BenchmarkData.writeDataFile(rows, 42);
+            service = BenchmarkData.newService(file, storageMode, DecodeMode.local);
+        }
+    }
+
+    /**
+     * A service with the data file already loaded.
+     */
+    @State(Scope.Benchmark)
+    public static class LoadedData {
+
+        @Param({"1000", "10000", "100000", "1000000", "10000000"})
+        public int rows;
+
+        @Param({"heap"})
+        public CodeStorageMode storageMode;
+
+        CodeDataService service;
+
+        /** Identifiers looked up by {@code getCodeById}, one in 16 of them not present. */
+        String[] lookupIds;
+        int nextLookup;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            Path file = BenchmarkData.writeDataFile(rows, 42);
+            service = BenchmarkData.newService(file, storageMode, DecodeMode.local);
+            service.loadData();
+            List<String> ids = service.getAllCodeIds();
+            Random random = new Random(7);
+            lookupIds = new String[4096];
+            for (int i = 0; i < lookupIds.length; i++) {
+                lookupIds[i] = i % 16 == 0 ? "missing-" + i : ids.get(random.nextInt(ids.size()));
+            }
+        }
+    }
+
+    /**
+     * The ordering of the sorted listing.
+     */
+    @State(Scope.Benchmark)
+    public static class SortOrder {
+
+        @Param({"code", "category", "name"})
+        public OrderByField orderBy;
+
+        @Param({"asc", "desc"})
+        public OrderByDirection direction;
+    }
+
+    /**
+     * Parse the data file, build the store, index and sorted views, and publish the snapshot.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public CodeSnapshot loadData(DataFile data) {
+        data.service.loadData();
+        return data.service.getSnapshot();
+    }
+
+    /**
+     * Fetch a sorted view and read every row of it, as serializing the listing does.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void getSortedCodes(LoadedData data, SortOrder order, Blackhole blackhole) {
+        List<Code> sorted = data.service.getSortedCodes(order.orderBy, order.direction);
+        for (int i = 0, size = sorted.size(); i < size; i++) {
+            blackhole.consume(sorted.get(i));
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Optional<Code> getCodeById(LoadedData data) {
+        String id = data.lookupIds[data.nextLookup++ & (data.lookupIds.length - 1)];
+        return data.service.getCodeById(id);
+    }
+
+    /**
+     * Build the decoded view the way {@code getDecodedCodes} does on its first call for a snapshot
+     * (deduplicating the encoded values, decoding them in-process and overlaying the decoded rows),
+     * then read every row of it. Calling the merge directly keeps the result from being cached on the snapshot.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void getDecodedCodesMerge(LoadedData data, Blackhole blackhole) {
+        List<Code> decoded = data.service.decodeCodes(data.service.getAllCodes()).codes();
+        for (int i = 0, size = decoded.size(); i < size; i++) {
+            blackhole.consume(decoded.get(i));
+        }
+    }
+}
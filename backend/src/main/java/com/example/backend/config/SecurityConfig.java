@@ -1,7 +1,11 @@
 package com.example.backend.config;
 
+import com.example.security.CachingJwtAuthenticationManager;
+import com.example.security.TokenValidationConfig;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -23,26 +27,35 @@ import java.util.stream.Collectors;
 /**
  * Spring Security configuration class for setting up OAuth2 Resource Server support
  * and defining security rules for HTTP requests.
+ * <p>
+ * Bearer tokens are validated by the shared {@link TokenValidationConfig}: the issuer's signing keys are fetched
+ * at startup and kept fresh in the background, and validated tokens are cached with their authorities, so a client
+ * that repeats its token pays for signature verification and role mapping once.
  */
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(jsr250Enabled = true, securedEnabled = true)
+@Import(TokenValidationConfig.class)
 public class SecurityConfig {
 
     /**
      * Configures the primary security filter chain for the application.
      *
      * @param http HttpSecurity object to configure.
+     * @param authenticationManager Authenticates bearer tokens, caching the ones it accepts.
      * @return The configured SecurityFilterChain.
      * @throws Exception If configuration fails.
      */
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http,
+                                           CachingJwtAuthenticationManager authenticationManager) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authorize -> authorize
                         .requestMatchers(HttpMethod.GET, "/public/codes", "/public/code/*").permitAll()
+                        .requestMatchers(EndpointRequest.to("health")).permitAll()
+                        .requestMatchers(EndpointRequest.to("prometheus")).authenticated()
                         .requestMatchers(HttpMethod.GET, "/private/codes", "/private/userinfo").authenticated()
                         .requestMatchers(HttpMethod.GET, "/private/decodedcodes").hasAuthority("ROLE_admin")
                         .anyRequest().authenticated()
@@ -50,7 +63,7 @@ public class SecurityConfig {
 
                 .oauth2ResourceServer(oauth2 -> oauth2
                         .jwt(jwt -> jwt
-                                        .jwtAuthenticationConverter(jwtAuthenticationConverter())
+                                        .authenticationManager(authenticationManager)
                         )
                 );
 
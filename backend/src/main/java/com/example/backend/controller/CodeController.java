@@ -4,12 +4,26 @@ import com.example.backend.dto.Code;
 import com.example.backend.dto.OrderByDirection;
 import com.example.backend.dto.OrderByField;
 import com.example.backend.service.CodeDataService;
+import com.example.backend.service.CodePage;
+import com.example.backend.service.CodeSnapshot;
+import com.example.backend.service.SnapshotResponseCache;
+import com.example.backend.service.SnapshotResponseCache.CachedResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 /**
  * Controller for managing code-related endpoints.
@@ -19,27 +33,99 @@ import java.util.stream.Collectors;
  * - GET /public/code/{code} – returns detailed information for a given code.
  * - GET /private/codes – returns a sorted list of codes based on query parameters.
  * - GET /private/decodedcodes – returns the list of decoded codes.
+ * <p>
+ * JSON responses for /public/codes, /public/code/{code} and /private/codes are served from
+ * {@link SnapshotResponseCache}: each view is serialized once per data snapshot and then written as bytes.
+ * Views too large for the cache (such as an unpaged listing of a big data set) are streamed through Jackson instead.
+ * <p>
+ * Each listing can also be requested with {@code Accept: application/x-ndjson}, in which case the rows
+ * are streamed to the client as newline-delimited JSON instead of one buffered array.
+ * <p>
+ * /public/codes and /private/codes accept optional 'limit' and 'cursor' parameters. When either is present the
+ * response holds one page and, if more rows follow, the cursor of the next page in the
+ * {@value #NEXT_CURSOR_HEADER} header.
+ * <p>
+ * The JSON responses carry an ETag derived from the content hash of the loaded data file, so clients that
+ * send it back in {@code If-None-Match} get HTTP 304 without a body until the data actually changes.
+ * Parameters are validated first, so an invalid cursor gets HTTP 400 (and an unknown code HTTP 404) whatever
+ * the client sends in {@code If-None-Match}; a 304 is decided before any body is looked up or built.
  */
 @RestController
 public class CodeController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String DECODED_READY_HEADER = "X-Decoded-Ready";
+
     private final CodeDataService codeDataService;
+    private final SnapshotResponseCache responseCache;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter rowWriter;
 
-    public CodeController(CodeDataService codeDataService) {
+    public CodeController(CodeDataService codeDataService, SnapshotResponseCache responseCache, ObjectMapper objectMapper) {
         this.codeDataService = codeDataService;
+        this.responseCache = responseCache;
+        this.objectMapper = objectMapper;
+        this.rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     /**
      * GET /public/codes
      * Returns a list of code identifiers.
      *
-     * @return A list of code strings.
+     * @param limit  Optional page size; enables pagination.
+     * @param cursor Optional cursor from the previous page; enables pagination.
+     * @param webRequest The current request, used to evaluate {@code If-None-Match}.
+     * @param servletResponse The servlet response, written to directly if the list is too large to cache.
+     * @return A list of code strings, HTTP 304 if the client's copy is current, or HTTP 400 for an invalid limit or cursor.
+     * @throws IOException If streaming an uncached list to the client fails.
      */
     @GetMapping("/public/codes")
-    public List<String> getPublicCodes() {
-        return codeDataService.getAllCodes().stream()
-                .map(Code::getCode)
-                .collect(Collectors.toList());
+    public ResponseEntity<byte[]> getPublicCodes(
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            WebRequest webRequest,
+            HttpServletResponse servletResponse) throws IOException {
+        CodeSnapshot snapshot = codeDataService.getSnapshot();
+        CodePage<String> page;
+        try {
+            page = publicCodesPage(snapshot, limit, cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (webRequest.checkNotModified(entityTag(snapshot, limit != null || cursor != null))) {
+            return null;
+        }
+        CachedResponse response = responseCache.get(snapshot, "public/codes?limit=" + limit + "&cursor=" + cursor,
+                () -> serialize(page));
+        if (response.oversized()) {
+            writeJson(page.items(), page.nextCursor(), servletResponse);
+            return null;
+        }
+        return jsonResponse(response);
+    }
+
+    /**
+     * GET /public/codes with {@code Accept: application/x-ndjson}
+     * Streams the code identifiers as newline-delimited JSON, one string per line.
+     *
+     * @param limit    Optional page size; enables pagination.
+     * @param cursor   Optional cursor from the previous page; enables pagination.
+     * @param response The servlet response the rows are written to.
+     * @throws IOException If writing to the client fails.
+     */
+    @GetMapping(value = "/public/codes", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamPublicCodes(
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            HttpServletResponse response) throws IOException {
+        CodePage<String> page;
+        try {
+            page = publicCodesPage(codeDataService.getSnapshot(), limit, cursor);
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return;
+        }
+        writeNdjson(page, response);
     }
 
     /**
@@ -47,13 +133,29 @@ public class CodeController {
      * Returns detailed information about a specific code.
      *
      * @param code The code identifier.
-     * @return A ResponseEntity with the code details if found, or HTTP 404 status if not.
+     * @param webRequest The current request, used to evaluate {@code If-None-Match}.
+     * @param servletResponse The servlet response, written to directly if the code is too large to cache.
+     * @return A ResponseEntity with the code details if found, HTTP 304 if the client's copy is current, or HTTP 404 status if not.
+     * @throws IOException If streaming an uncached response to the client fails.
      */
     @GetMapping("/public/code/{code}")
-    public ResponseEntity<Code> getPublicCode(@PathVariable("code") String code) {
-        return codeDataService.getCodeById(code)
-                .map(ResponseEntity::ok)
-                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    public ResponseEntity<byte[]> getPublicCode(@PathVariable("code") String code, WebRequest webRequest,
+                                                HttpServletResponse servletResponse) throws IOException {
+        CodeSnapshot snapshot = codeDataService.getSnapshot();
+        Optional<Code> found = codeDataService.getCodeById(snapshot, code);
+        if (found.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        if (webRequest.checkNotModified(entityTag(snapshot, false))) {
+            return null;
+        }
+        CachedResponse response = responseCache.get(snapshot, "public/code/" + code,
+                () -> responseCache.serialize(found.get(), null));
+        if (response.oversized()) {
+            writeJson(found.get(), null, servletResponse);
+            return null;
+        }
+        return jsonResponse(response);
     }
 
     /**
@@ -62,13 +164,68 @@ public class CodeController {
      *
      * @param orderBy          The field to sort by (defaults to "code").
      * @param orderByDirection The direction of the sort (defaults to "asc").
-     * @return A list of Code objects sorted according to the parameters.
+     * @param limit            Optional page size; enables pagination.
+     * @param cursor           Optional cursor from the previous page; enables pagination.
+     * @param webRequest       The current request, used to evaluate {@code If-None-Match}.
+     * @param servletResponse  The servlet response, written to directly if the list is too large to cache.
+     * @return A list of Code objects sorted according to the parameters, HTTP 304 if the client's copy is current,
+     * or HTTP 400 for an invalid limit or cursor.
+     * @throws IOException If streaming an uncached list to the client fails.
      */
     @GetMapping("/private/codes")
-    public List<Code> getPrivateCodes(
+    public ResponseEntity<byte[]> getPrivateCodes(
+            @RequestParam(name = "orderby", required = false, defaultValue = "code") OrderByField orderBy,
+            @RequestParam(name = "orderbydirection", required = false, defaultValue = "asc") OrderByDirection orderByDirection,
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            WebRequest webRequest,
+            HttpServletResponse servletResponse) throws IOException {
+        CodeSnapshot snapshot = codeDataService.getSnapshot();
+        CodePage<Code> page;
+        try {
+            page = privateCodesPage(snapshot, orderBy, orderByDirection, limit, cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (webRequest.checkNotModified(entityTag(snapshot, limit != null || cursor != null))) {
+            return null;
+        }
+        String view = "private/codes?orderby=" + orderBy + "&orderbydirection=" + orderByDirection
+                + "&limit=" + limit + "&cursor=" + cursor;
+        CachedResponse response = responseCache.get(snapshot, view, () -> serialize(page));
+        if (response.oversized()) {
+            writeJson(page.items(), page.nextCursor(), servletResponse);
+            return null;
+        }
+        return jsonResponse(response);
+    }
+
+    /**
+     * GET /private/codes with {@code Accept: application/x-ndjson}
+     * Streams the sorted codes as newline-delimited JSON, one Code object per line.
+     *
+     * @param orderBy          The field to sort by (defaults to "code").
+     * @param orderByDirection The direction of the sort (defaults to "asc").
+     * @param limit            Optional page size; enables pagination.
+     * @param cursor           Optional cursor from the previous page; enables pagination.
+     * @param response         The servlet response the rows are written to.
+     * @throws IOException If writing to the client fails.
+     */
+    @GetMapping(value = "/private/codes", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamPrivateCodes(
             @RequestParam(name = "orderby", required = false, defaultValue = "code") OrderByField orderBy,
-            @RequestParam(name = "orderbydirection", required = false, defaultValue = "asc") OrderByDirection orderByDirection) {
-        return codeDataService.getSortedCodes(orderBy, orderByDirection);
+            @RequestParam(name = "orderbydirection", required = false, defaultValue = "asc") OrderByDirection orderByDirection,
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            HttpServletResponse response) throws IOException {
+        CodePage<Code> page;
+        try {
+            page = privateCodesPage(codeDataService.getSnapshot(), orderBy, orderByDirection, limit, cursor);
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return;
+        }
+        writeNdjson(page, response);
     }
 
 
@@ -78,10 +235,107 @@ public class CodeController {
      * and returns the potentially modified list.
      * Requires Admin role (enforced by SecurityConfig).
      *
+     * The {@value #DECODED_READY_HEADER} header tells whether the decoded view of the current data set is complete;
+     * while it is false (eager decoding still running, or the Base64 service failing) the rows are returned undecoded.
+     *
      * @return A list of Code objects, with base64 fields decoded.
      */
     @GetMapping("/private/decodedcodes")
-    public List<Code> getDecodedCodes() {
-        return codeDataService.getDecodedCodes();
+    public ResponseEntity<List<Code>> getDecodedCodes() {
+        CodeSnapshot snapshot = codeDataService.getSnapshot();
+        List<Code> codes = codeDataService.getDecodedCodes(snapshot);
+        return ResponseEntity.ok()
+                .header(DECODED_READY_HEADER, String.valueOf(snapshot.isDecodedReady()))
+                .body(codes);
+    }
+
+    /**
+     * GET /private/decodedcodes with {@code Accept: application/x-ndjson}
+     * Streams the decoded codes as newline-delimited JSON, one Code object per line.
+     *
+     * @param response The servlet response the rows are written to.
+     * @throws IOException If writing to the client fails.
+     */
+    @GetMapping(value = "/private/decodedcodes", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamDecodedCodes(HttpServletResponse response) throws IOException {
+        CodeSnapshot snapshot = codeDataService.getSnapshot();
+        List<Code> codes = codeDataService.getDecodedCodes(snapshot);
+        response.setHeader(DECODED_READY_HEADER, String.valueOf(snapshot.isDecodedReady()));
+        writeNdjson(new CodePage<>(codes, null), response);
+    }
+
+    private CodePage<String> publicCodesPage(CodeSnapshot snapshot, Integer limit, String cursor) {
+        if (limit == null && cursor == null) {
+            return new CodePage<>(snapshot.getCodeIds(), null);
+        }
+        return codeDataService.getCodeIdsPage(snapshot, cursor, limit);
+    }
+
+    private CodePage<Code> privateCodesPage(CodeSnapshot snapshot, OrderByField orderBy, OrderByDirection orderByDirection, Integer limit, String cursor) {
+        if (limit == null && cursor == null) {
+            return new CodePage<>(codeDataService.getSortedCodes(snapshot, orderBy, orderByDirection), null);
+        }
+        return codeDataService.getSortedCodesPage(snapshot, orderBy, orderByDirection, cursor, limit);
+    }
+
+    private CachedResponse serialize(CodePage<?> page) {
+        return responseCache.serialize(page.items(), page.nextCursor());
+    }
+
+    /**
+     * Writes a JSON body straight to the response output stream, for views too large for the response cache.
+     * List rows are serialized as the generator reaches them, so the body is never held in memory as a whole.
+     */
+    private void writeJson(Object body, String nextCursor, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (nextCursor != null) {
+            response.setHeader(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            rowWriter.writeValue(generator, body);
+        }
+    }
+
+    /**
+     * Writes the rows of a page straight to the response output stream, one JSON value per line.
+     * Rows are serialized one at a time through a single generator, so memory use per request
+     * stays constant regardless of how many rows are written.
+     */
+    private void writeNdjson(CodePage<?> page, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        if (page.nextCursor() != null) {
+            response.setHeader(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Rows are separated by the newline alone, not by Jackson's default space between root values.
+            generator.setRootValueSeparator(null);
+            for (Object row : page.items()) {
+                rowWriter.writeValue(generator, row);
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    /**
+     * Builds the entity tag of a snapshot-derived response. The body only depends on the data file content,
+     * but a page also carries a next-page cursor bound to the snapshot version, so paged responses include it.
+     */
+    private static String entityTag(CodeSnapshot snapshot, boolean paged) {
+        String tag = paged ? snapshot.getContentHash() + "." + snapshot.getVersion() : snapshot.getContentHash();
+        return "\"" + tag + "\"";
+    }
+
+    private static ResponseEntity<byte[]> jsonResponse(CachedResponse cached) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT);
+        if (cached.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, cached.nextCursor());
+        }
+        return response.body(cached.body());
     }
 }
@@ -0,0 +1,49 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.Code;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * In-process counterpart of base64-service's DecodingService, used when {@link DecodeMode#local} is configured.
+ * Decodes {@code name} and {@code type} values that start with {@code base64:} and leaves values that are
+ * not valid Base64 unchanged.
+ */
+final class Base64FieldDecoder {
+
+    private static final Logger log = LoggerFactory.getLogger(Base64FieldDecoder.class);
+
+    static final String BASE64_PREFIX = "base64:";
+
+    private Base64FieldDecoder() {
+    }
+
+    /**
+     * @param code A code row.
+     * @return True if its name or type is Base64-encoded.
+     */
+    static boolean needsDecoding(Code code) {
+        return (code.getName() != null && code.getName().startsWith(BASE64_PREFIX)) ||
+                (code.getType() != null && code.getType().startsWith(BASE64_PREFIX));
+    }
+
+    /**
+     * @param value A field value, including its {@code base64:} prefix.
+     * @return The decoded value, or the value unchanged if it is not valid Base64.
+     */
+    static String decodeValue(String value) {
+        if (value == null || !value.startsWith(BASE64_PREFIX)) {
+            return value;
+        }
+        try {
+            byte[] decodedBytes = Base64.getDecoder().decode(value.substring(BASE64_PREFIX.length()));
+            return new String(decodedBytes, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            log.warn("Failed to decode Base64 value '{}': {}", value, e.getMessage());
+            return value;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.Code;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.core.OAuth2AuthorizationException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP client for base64-service's decode endpoints.
+ * <p>
+ * Requests go through a dedicated JDK {@link HttpClient}, which keeps connections alive and pools them per
+ * host (pool limits follow the {@code jdk.httpclient.*} system properties) and negotiates HTTP/2 when the
+ * service offers it. Connect and read timeouts keep request threads from waiting indefinitely on a hung
+ * service, and a {@link CircuitBreaker} rejects calls outright while the service keeps failing, so callers
+ * fall back to the original codes immediately.
+ * <p>
+ * base64-service only decodes for callers with its admin role. The client authenticates as the backend itself with
+ * the client credentials grant of the {@code app.base64-service.client-registration} client registration, so the
+ * shared decode of a snapshot does not depend on which user asked for it. Without that registration, requests are
+ * sent without a token.
+ * <p>
+ * Batches are exchanged as Smile (binary JSON) when {@code app.base64-service.smile} is enabled, which is cheaper
+ * to write and parse than JSON text. If the service answers 415 or 406 to a Smile request, the client switches
+ * to plain JSON for the rest of its lifetime.
+ * <p>
+ * Distinct values are sent to POST /decode/values. If the service answers 404 or 405 there, the client sends whole
+ * codes to POST /decode from then on. A 401 or 403 is a failed call like any other.
+ * <p>
+ * Every call is timed in 'base64.client.calls' (tagged by endpoint and outcome) and its size recorded in
+ * 'base64.client.batch.size'; calls the open circuit rejects are counted in 'base64.client.rejected'.
+ */
+@Component
+public class Base64ServiceClient {
+
+    private static final Logger log = LoggerFactory.getLogger(Base64ServiceClient.class);
+
+    static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    private static final ParameterizedTypeReference<List<Code>> CODE_LIST = new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<List<String>> STRING_LIST = new ParameterizedTypeReference<>() {};
+
+    private final String decodeUrl;
+    private final String valuesUrl;
+    private final RestTemplate restTemplate;
+    private final CircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+    private volatile boolean useSmile;
+    private volatile boolean valuesEndpoint = true;
+
+    public Base64ServiceClient(
+            RestTemplateBuilder builder,
+            MeterRegistry meterRegistry,
+            @Value("${app.base64-service.url}") String base64ServiceUrl,
+            @Value("${app.base64-service.http2:true}") boolean http2,
+            @Value("${app.base64-service.smile:true}") boolean smile,
+            @Value("${app.base64-service.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${app.base64-service.read-timeout-ms:10000}") long readTimeoutMs,
+            @Value("${app.base64-service.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${app.base64-service.circuit-breaker.open-duration-ms:30000}") long openDurationMs,
+            @Value("${app.base64-service.client-registration:base64-service}") String clientRegistrationId,
+            ObjectProvider<ClientRegistrationRepository> clientRegistrations) {
+        this.decodeUrl = base64ServiceUrl + "/decode";
+        this.valuesUrl = base64ServiceUrl + "/decode/values";
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        RestTemplateBuilder serviceBuilder = builder
+                .requestFactory(() -> {
+                    JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+                    factory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+                    return factory;
+                });
+        ClientRegistrationRepository registrations = clientRegistrations.getIfAvailable();
+        if (registrations != null && registrations.findByRegistrationId(clientRegistrationId) != null) {
+            serviceBuilder = serviceBuilder.additionalInterceptors(new ClientCredentialsInterceptor(registrations,
+                    clientRegistrationId, builder, Duration.ofMillis(connectTimeoutMs), Duration.ofMillis(readTimeoutMs)));
+        } else {
+            log.warn("No client registration '{}'; calling the Base64 service without a token.", clientRegistrationId);
+        }
+        this.restTemplate = serviceBuilder.build();
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openDurationMs);
+        this.meterRegistry = meterRegistry;
+        this.useSmile = smile;
+
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            Gauge.builder("base64.client.circuit.state", circuitBreaker, breaker -> breaker.getState() == state ? 1 : 0)
+                    .description("1 for the current state of the Base64 service circuit breaker")
+                    .tag("state", state.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Decodes a list of distinct {@code base64:} values through POST /decode/values.
+     * Falls back to POST /decode with one Code per value if the service does not offer the values endpoint.
+     *
+     * @param encodedValues The values to decode, including their prefix.
+     * @return The decoded values in request order (values that are not valid Base64 come back unchanged),
+     * or an empty list on error or while the circuit is open.
+     */
+    public List<String> decodeValues(List<String> encodedValues) {
+        if (valuesEndpoint) {
+            List<String> decoded = post(valuesUrl, encodedValues, STRING_LIST);
+            if (decoded != null && decoded.size() == encodedValues.size()) {
+                return decoded;
+            }
+            if (decoded != null) {
+                log.error("Base64 service returned {} values for {} requested", decoded.size(), encodedValues.size());
+                return Collections.emptyList();
+            }
+            if (valuesEndpoint) {
+                return Collections.emptyList();
+            }
+        }
+        return decodeValuesAsCodes(encodedValues);
+    }
+
+    /**
+     * Calls the external Base64 decoding service.
+     *
+     * @param codesToDecode List of codes to send for decoding.
+     * @return List of decoded codes received from the service, or empty list on error or while the circuit is open.
+     */
+    public List<Code> decode(List<Code> codesToDecode) {
+        List<Code> decoded = post(decodeUrl, codesToDecode, CODE_LIST);
+        return decoded != null ? decoded : Collections.emptyList();
+    }
+
+    private List<String> decodeValuesAsCodes(List<String> encodedValues) {
+        List<Code> codes = new ArrayList<>(encodedValues.size());
+        for (String value : encodedValues) {
+            codes.add(new Code(null, null, value, null));
+        }
+        List<Code> decoded = decode(codes);
+        if (decoded.size() != encodedValues.size()) {
+            return Collections.emptyList();
+        }
+        List<String> values = new ArrayList<>(decoded.size());
+        for (Code code : decoded) {
+            values.add(code.getName());
+        }
+        return values;
+    }
+
+    /**
+     * Posts a batch through the circuit breaker, preferring Smile.
+     *
+     * @return The response body, or null if the call failed or was rejected.
+     */
+    private <T> List<T> post(String url, List<?> body, ParameterizedTypeReference<List<T>> responseType) {
+        String endpoint = url.equals(valuesUrl) ? "values" : "decode";
+        if (!circuitBreaker.tryAcquire()) {
+            log.debug("Base64 service circuit is open; skipping call to {}", url);
+            meterRegistry.counter("base64.client.rejected", "endpoint", endpoint).increment();
+            return null;
+        }
+
+        DistributionSummary.builder("base64.client.batch.size")
+                .description("Entries sent per Base64 service call")
+                .tag("endpoint", endpoint)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(100_000.0)
+                .register(meterRegistry)
+                .record(body.size());
+        long started = System.nanoTime();
+        String outcome = "error";
+        try {
+            ResponseEntity<List<T>> response;
+            try {
+                response = exchange(url, body, responseType, useSmile);
+            } catch (HttpClientErrorException.UnsupportedMediaType | HttpClientErrorException.NotAcceptable e) {
+                if (!useSmile) {
+                    throw e;
+                }
+                log.info("Base64 service at {} does not accept Smile ({}); falling back to JSON.", url, e.getStatusCode());
+                useSmile = false;
+                response = exchange(url, body, responseType, false);
+            }
+
+            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+                log.debug("Successfully received {} decoded entries from Base64 service", response.getBody().size());
+                circuitBreaker.recordSuccess();
+                outcome = "success";
+                return response.getBody();
+            } else {
+                log.error("Base64 service call failed with status: {}", response.getStatusCode());
+            }
+        } catch (HttpClientErrorException.NotFound | HttpClientErrorException.MethodNotAllowed e) {
+            if (url.equals(valuesUrl)) {
+                log.info("Base64 service at {} has no values endpoint ({}); sending whole codes instead.", url, e.getStatusCode());
+                valuesEndpoint = false;
+                circuitBreaker.recordSuccess();
+                outcome = "no_endpoint";
+                return null;
+            }
+            log.error("Error calling Base64 service at {}: {}", url, e.getMessage());
+        } catch (RestClientException e) {
+            log.error("Error calling Base64 service at {}: {}", url, e.getMessage());
+        } catch (OAuth2AuthorizationException e) {
+            log.error("Could not obtain a token for the Base64 service: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            // E.g. a response body that does not decode; still a failed call, so the caller falls back.
+            log.error("Unexpected error calling Base64 service at {}", url, e);
+        } finally {
+            Timer.builder("base64.client.calls")
+                    .description("Base64 service calls, including the JSON retry after a rejected Smile request")
+                    .tag("endpoint", endpoint)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            // Every acquired call must be recorded, or a half-open circuit would never let another call through.
+            if (outcome.equals("error") && circuitBreaker.recordFailure()) {
+                log.warn("Base64 service circuit opened; serving original codes until it recovers.");
+            }
+        }
+        return null;
+    }
+
+    private <T> ResponseEntity<List<T>> exchange(String url, List<?> body, ParameterizedTypeReference<List<T>> responseType, boolean smile) {
+        HttpHeaders headers = new HttpHeaders();
+        if (smile) {
+            headers.setContentType(SMILE);
+            headers.setAccept(List.of(SMILE, MediaType.APPLICATION_JSON));
+        } else {
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        }
+        return restTemplate.exchange(url, HttpMethod.POST, new HttpEntity<>(body, headers), responseType);
+    }
+
+    /**
+     * @return The current state of the circuit breaker.
+     */
+    public String getCircuitState() {
+        return circuitBreaker.getState().name();
+    }
+}
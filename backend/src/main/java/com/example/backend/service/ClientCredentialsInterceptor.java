@@ -0,0 +1,89 @@
+package com.example.backend.service;
+
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.converter.FormHttpMessageConverter;
+import org.springframework.security.oauth2.client.AuthorizedClientServiceOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.InMemoryOAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.OAuth2AuthorizeRequest;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientProviderBuilder;
+import org.springframework.security.oauth2.client.endpoint.DefaultClientCredentialsTokenResponseClient;
+import org.springframework.security.oauth2.client.http.OAuth2ErrorResponseErrorHandler;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.core.OAuth2AuthorizationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.http.converter.OAuth2AccessTokenResponseHttpMessageConverter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adds the backend's own access token to every request, obtained with the client credentials grant of one client
+ * registration ('spring.security.oauth2.client.registration.&lt;id&gt;.*').
+ * <p>
+ * The token is cached and only requested again shortly before it expires. Requests that find it expiring wait for
+ * one token request instead of each sending their own. A token request that fails surfaces as an
+ * {@link OAuth2AuthorizationException} from the call it was made for.
+ */
+final class ClientCredentialsInterceptor implements ClientHttpRequestInterceptor {
+
+    /** The principal the token is cached under; the grant itself does not involve a user. */
+    private static final String PRINCIPAL = "backend";
+
+    private final AuthorizedClientServiceOAuth2AuthorizedClientManager clientManager;
+    private final String registrationId;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * @param clientRegistrations The configured client registrations.
+     * @param registrationId The registration to request tokens for.
+     * @param restTemplateBuilder Builder for the client that talks to the token endpoint.
+     * @param connectTimeout Connect timeout of token requests.
+     * @param readTimeout Read timeout of token requests.
+     */
+    ClientCredentialsInterceptor(ClientRegistrationRepository clientRegistrations, String registrationId,
+                                 RestTemplateBuilder restTemplateBuilder, Duration connectTimeout, Duration readTimeout) {
+        DefaultClientCredentialsTokenResponseClient tokenClient = new DefaultClientCredentialsTokenResponseClient();
+        tokenClient.setRestOperations(restTemplateBuilder
+                .messageConverters(new FormHttpMessageConverter(), new OAuth2AccessTokenResponseHttpMessageConverter())
+                .errorHandler(new OAuth2ErrorResponseErrorHandler())
+                .setConnectTimeout(connectTimeout)
+                .setReadTimeout(readTimeout)
+                .build());
+        this.clientManager = new AuthorizedClientServiceOAuth2AuthorizedClientManager(
+                clientRegistrations, new InMemoryOAuth2AuthorizedClientService(clientRegistrations));
+        this.clientManager.setAuthorizedClientProvider(OAuth2AuthorizedClientProviderBuilder.builder()
+                .clientCredentials(grant -> grant.accessTokenResponseClient(tokenClient))
+                .build());
+        this.registrationId = registrationId;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        request.getHeaders().setBearerAuth(accessToken());
+        return execution.execute(request, body);
+    }
+
+    private String accessToken() {
+        OAuth2AuthorizedClient client;
+        lock.lock();
+        try {
+            client = clientManager.authorize(OAuth2AuthorizeRequest.withClientRegistrationId(registrationId)
+                    .principal(PRINCIPAL)
+                    .build());
+        } finally {
+            lock.unlock();
+        }
+        if (client == null) {
+            throw new OAuth2AuthorizationException(new OAuth2Error("invalid_client",
+                    "Client registration '" + registrationId + "' cannot use the client credentials grant", null));
+        }
+        return client.getAccessToken().getTokenValue();
+    }
+}
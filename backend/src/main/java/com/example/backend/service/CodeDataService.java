@@ -3,57 +3,149 @@ package com.example.backend.service;
 import com.example.backend.dto.Code;
 import com.example.backend.dto.OrderByDirection;
 import com.example.backend.dto.OrderByField;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.function.Function;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 /**
  * Service responsible for loading and managing the code list data from data.json.
  * Provides methods for accessing and sorting the codes.
+ * <p>
+ * Publishes load and sort times ('codes.load', 'codes.sort'), the size of the current snapshot
+ * ('codes.snapshot.*') and decode runs ('codes.decode*') to the meter registry.
  */
 @Service
 public class CodeDataService {
 
     private static final Logger log = LoggerFactory.getLogger(CodeDataService.class);
 
-    private static final String BASE64_PREFIX = "base64:";
-
     @Value("${app.data.file.path:/data/data.json}")
     private String dataFilePath;
 
     @Value("${app.base64-service.url}")
     private String base64ServiceUrl;
 
+    @Value("${app.data.reload.enabled:true}")
+    private boolean reloadEnabled;
+
     private final ObjectMapper objectMapper;
-    private final RestTemplate restTemplate;
+    private final Base64ServiceClient base64ServiceClient;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.paging.default-limit:100}")
+    private int defaultPageSize;
+
+    @Value("${app.paging.max-limit:10000}")
+    private int maxPageSize;
+
+    @Value("${app.data.storage.mode:heap}")
+    private CodeStorageMode storageMode;
+
+    @Value("${app.data.storage.off-heap:false}")
+    private boolean offHeapStorage;
+
+    private final AtomicReference<CodeSnapshot> snapshot = new AtomicReference<>(CodeSnapshot.empty());
+
+    private final AtomicLong snapshotVersions = new AtomicLong();
+
+    private volatile DataFileStamp loadedStamp;
+
+    @Value("${app.base64-service.retry.initial-backoff-ms:1000}")
+    private long decodeInitialBackoffMs;
+
+    @Value("${app.base64-service.retry.max-backoff-ms:60000}")
+    private long decodeMaxBackoffMs;
+
+    @Value("${app.base64-service.batch.size:1000}")
+    private int decodeBatchSize;
+
+    @Value("${app.base64-service.batch.parallelism:4}")
+    private int decodeParallelism;
+
+    @Value("${app.decode.mode:service}")
+    private DecodeMode decodeMode;
+
+    @Value("${app.decode.eager:false}")
+    private boolean eagerDecode;
+
+    private final Object decodeLock = new Object();
 
+    private DecodeFailure decodeFailure;
 
-    private List<Code> codeList = new CopyOnWriteArrayList<>();
+    private InFlightDecode inFlightDecode;
 
+    private final LongAdder decodeRuns = new LongAdder();
 
-    public CodeDataService(ObjectMapper objectMapper, RestTemplate restTemplate) {
+    private final LongAdder coalescedDecodeCallers = new LongAdder();
+
+    private final ScheduledExecutorService decodeExecutor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("code-decoder").daemon().factory());
+
+
+    public CodeDataService(ObjectMapper objectMapper, Base64ServiceClient base64ServiceClient, MeterRegistry meterRegistry) {
         this.objectMapper = objectMapper;
-        this.restTemplate = restTemplate;
+        this.base64ServiceClient = base64ServiceClient;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("codes.snapshot.rows", snapshot, current -> current.get().getCodes().size())
+                .description("Rows in the published snapshot")
+                .register(meterRegistry);
+        Gauge.builder("codes.snapshot.unique", snapshot, current -> current.get().getUniqueCodeCount())
+                .description("Distinct code identifiers in the published snapshot")
+                .register(meterRegistry);
+        Gauge.builder("codes.snapshot.heap", snapshot, current -> current.get().estimateHeapBytes())
+                .description("Estimated heap retained by the published snapshot")
+                .baseUnit(BaseUnits.BYTES)
+                .register(meterRegistry);
+        Gauge.builder("codes.snapshot.offheap", snapshot, current -> current.get().getOffHeapBytes())
+                .description("Direct memory retained by the published snapshot")
+                .baseUnit(BaseUnits.BYTES)
+                .register(meterRegistry);
+        Gauge.builder("codes.snapshot.version", snapshot, current -> current.get().getVersion())
+                .description("Version of the published snapshot")
+                .register(meterRegistry);
+        FunctionCounter.builder("codes.decode.runs", decodeRuns, LongAdder::sum)
+                .description("Decodes of a snapshot that were actually run")
+                .register(meterRegistry);
+        FunctionCounter.builder("codes.decode.coalesced", coalescedDecodeCallers, LongAdder::sum)
+                .description("Callers that joined a decode already in flight")
+                .register(meterRegistry);
     }
 
     /**
@@ -61,165 +153,735 @@ public class CodeDataService {
      * after the service bean has been initialized. [cite: 13]
      */
     @PostConstruct
-    private void loadData() {
+    void loadData() {
         log.info("Attempting to load code data from: {}", dataFilePath);
-        List<Code> tempCodeList = new ArrayList<>();
-        try (InputStream inputStream = Files.newInputStream(Paths.get(dataFilePath))) {
-            List<List<String>> rawData = objectMapper.readValue(inputStream, new TypeReference<List<List<String>>>() {});
-
-            if (rawData != null && rawData.size() > 1) {
-                for (int i = 1; i < rawData.size(); i++) {
-                    List<String> row = rawData.get(i);
-                    if (row != null && row.size() >= 3) {
-                        Code code = new Code();
-                        code.setCode(row.get(0));
-                        code.setType(row.get(1));
-                        code.setName(row.get(2));
-                        code.setCategory(null);
-                        tempCodeList.add(code);
-                    } else {
-                        log.warn("Skipping invalid row at index {}: {}", i, row);
-                    }
-                }
-                log.info("Successfully parsed {} code entries from {}", tempCodeList.size(), dataFilePath);
-            } else {
-                log.warn("Data file at {} is empty or only contains headers.", dataFilePath);
-            }
-
+        long started = System.nanoTime();
+        String outcome = "success";
+        DataFile tempDataFile = new DataFile(CodeStore.builder(storageMode, offHeapStorage).build(), CodeSnapshot.EMPTY_CONTENT_HASH, null);
+        try {
+            tempDataFile = readDataFile();
         } catch (NoSuchFileException | FileNotFoundException e) {
             log.error("Data file not found at path: {}. Service will operate with an empty code list.", dataFilePath);
+            outcome = "missing";
         } catch (IOException e) {
             log.error("Failed to read or parse data file at path: {}. Service will operate with an empty code list.", dataFilePath, e);
+            outcome = "failure";
         } catch (Exception e) {
             log.error("Unexpected error processing data file at path: {}. Service will operate with an empty code list.", dataFilePath, e);
+            outcome = "failure";
         }
 
-        this.codeList = List.copyOf(tempCodeList);
+        CodeSnapshot loaded = publishSnapshot(tempDataFile);
+        recordLoad("startup", outcome, started);
 
-        log.info("CodeDataService initialized with {} codes.", this.codeList.size());
+        log.info("CodeDataService initialized with {} codes ({} unique identifiers).", loaded.getCodes().size(), loaded.getUniqueCodeCount());
     }
 
+    /**
+     * Polls the data file and, when its size, modification time or identity changed,
+     * parses it in the background and publishes a new snapshot.
+     * If the new file cannot be parsed the current snapshot stays in place.
+     */
+    @Scheduled(initialDelayString = "${app.data.reload.interval-ms:5000}", fixedDelayString = "${app.data.reload.interval-ms:5000}")
+    void reloadIfChanged() {
+        if (!reloadEnabled) {
+            return;
+        }
+        DataFileStamp currentStamp = DataFileStamp.of(Paths.get(dataFilePath));
+        if (currentStamp == null || currentStamp.equals(loadedStamp)) {
+            return;
+        }
+
+        log.info("Detected change in data file {}. Reloading.", dataFilePath);
+        long started = System.nanoTime();
+        try {
+            CodeSnapshot reloaded = publishSnapshot(readDataFile());
+            recordLoad("reload", "success", started);
+            log.info("Reloaded {} codes from {} as snapshot version {}.", reloaded.getCodes().size(), dataFilePath, reloaded.getVersion());
+        } catch (IOException e) {
+            recordLoad("reload", "failure", started);
+            log.error("Failed to reload data file at path: {}. Keeping snapshot version {}.", dataFilePath, snapshot.get().getVersion(), e);
+        } catch (Exception e) {
+            recordLoad("reload", "failure", started);
+            log.error("Unexpected error reloading data file at path: {}. Keeping snapshot version {}.", dataFilePath, snapshot.get().getVersion(), e);
+        }
+    }
+
+    /**
+     * Records the time taken to read the data file and publish its snapshot, including the sorted views.
+     */
+    private void recordLoad(String trigger, String outcome, long startedNanos) {
+        Timer.builder("codes.load")
+                .description("Time to parse the data file and publish its snapshot")
+                .tag("trigger", trigger)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Reads and parses the data file, noting which version of the file was read. The stamp is taken before
+     * reading, so a change made while the file is parsed is picked up by the next poll.
+     *
+     * The file content is hashed while it is parsed, giving each data set a stable identity for ETags.
+     *
+     * @return The parsed codes, stored according to the configured storage mode, the content hash and the stamp.
+     * @throws IOException If the file is missing, unreadable or malformed.
+     */
+    private DataFile readDataFile() throws IOException {
+        Path path = Paths.get(dataFilePath);
+        DataFileStamp stamp = DataFileStamp.of(path);
+        MessageDigest digest = newContentDigest();
+        try (InputStream inputStream = new DigestInputStream(Files.newInputStream(path), digest)) {
+            CodeStore.Builder builder = CodeStore.builder(storageMode, offHeapStorage);
+            parseCodes(inputStream, builder);
+            inputStream.transferTo(OutputStream.nullOutputStream());
+            if (builder.size() > 0) {
+                log.info("Successfully parsed {} code entries from {}", builder.size(), dataFilePath);
+            }
+            return new DataFile(builder.build(), Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest.digest(), 16)), stamp);
+        }
+    }
+
+    private static MessageDigest newContentDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Builds a snapshot with a new version number and makes it visible to readers with a single
+     * atomic swap. Requests already holding the previous snapshot finish on it.
+     * <p>
+     * Only then is the file's stamp remembered, so the reload poller keeps retrying a file that failed to load
+     * and only stops re-parsing once its content is being served.
+     *
+     * @param dataFile The codes of the new data set and their content hash.
+     * @return The published snapshot.
+     */
+    private CodeSnapshot publishSnapshot(DataFile dataFile) {
+        CodeSnapshot next = CodeSnapshot.build(snapshotVersions.incrementAndGet(), storageMode, dataFile.store(), dataFile.contentHash());
+        snapshot.set(next);
+        if (dataFile.stamp() != null) {
+            loadedStamp = dataFile.stamp();
+        }
+        scheduleEagerDecode(next, 0);
+        for (OrderByField field : OrderByField.values()) {
+            Timer.builder("codes.sort")
+                    .description("Time to build the sorted views of a snapshot, both directions")
+                    .tag("field", field.name())
+                    .register(meterRegistry)
+                    .record(next.getSortNanos(field), TimeUnit.NANOSECONDS);
+        }
+        log.info("Snapshot version {}: {} codes in {} storage, estimated heap {} KiB, off-heap {} KiB.",
+                next.getVersion(), next.getCodes().size(), next.getStorageMode(),
+                next.estimateHeapBytes() / 1024, next.getOffHeapBytes() / 1024);
+        return next;
+    }
+
+    /**
+     * Reads the data file as a token stream and builds Code rows as they are encountered,
+     * so the raw {@code List<List<String>>} tree is never materialized.
+     * The first row is treated as the header; rows with fewer than three values are skipped.
+     * The stream is left open for the caller.
+     *
+     * @param inputStream The data file contents.
+     * @param codes Receives the valid rows in file order.
+     * @throws IOException If the content is not a JSON array of rows or cannot be read.
+     */
+    private void parseCodes(InputStream inputStream, CodeStore.Builder codes) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(inputStream)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                log.warn("Data file at {} is empty or only contains headers.", dataFilePath);
+                return;
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected a JSON array of rows but found " + token);
+            }
+
+            List<String> row = new ArrayList<>(3);
+            int index = 0;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new JsonParseException(parser, "Unexpected end of input inside the row array");
+                }
+                if (index++ == 0) {
+                    parser.skipChildren();
+                    continue;
+                }
+                if (token != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    log.warn("Skipping invalid row at index {}: {}", index - 1, token == JsonToken.VALUE_NULL ? null : parser.getText());
+                    continue;
+                }
 
+                row.clear();
+                boolean scalarsOnly = true;
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (token == JsonToken.START_ARRAY || token == JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        scalarsOnly = false;
+                    } else if (row.size() < 3) {
+                        row.add(parser.getValueAsString());
+                    }
+                }
 
+                if (scalarsOnly && row.size() >= 3) {
+                    codes.add(row.get(0), row.get(1), row.get(2), null);
+                } else {
+                    log.warn("Skipping invalid row at index {}: {}", index - 1, row);
+                }
+            }
+
+            if (index <= 1) {
+                log.warn("Data file at {} is empty or only contains headers.", dataFilePath);
+            }
+        }
+    }
+
+    /**
+     * Returns the currently published data snapshot.
+     * Callers that need several views of the data within one request should read it once.
+     * @return The current snapshot.
+     */
+    public CodeSnapshot getSnapshot() {
+        return snapshot.get();
+    }
 
     /**
      * Returns the full, potentially unsorted, list of codes. [cite: 18]
      * @return An unmodifiable view or a copy of the code list.
      */
     public List<Code> getAllCodes() {
-        return Collections.unmodifiableList(codeList);
+        return snapshot.get().getCodes();
+    }
+
+    /**
+     * Returns the identifiers of all codes, in data file order.
+     * The list is built once per snapshot, so callers do not pay for a mapping pass.
+     * @return An unmodifiable list of code identifiers.
+     */
+    public List<String> getAllCodeIds() {
+        return snapshot.get().getCodeIds();
     }
 
     /**
      * Finds a specific code by its ID. [cite: 18]
+     * Uses the index of the current snapshot, so the lookup is O(1).
      * @param codeId The ID of the code to find.
      * @return An Optional containing the Code if found, otherwise an empty Optional.
      */
     public Optional<Code> getCodeById(String codeId) {
+        return getCodeById(snapshot.get(), codeId);
+    }
+
+    /**
+     * Finds a specific code by its ID in the given snapshot.
+     * @param source The snapshot to search.
+     * @param codeId The ID of the code to find.
+     * @return An Optional containing the Code if found, otherwise an empty Optional.
+     */
+    public Optional<Code> getCodeById(CodeSnapshot source, String codeId) {
         if (codeId == null || codeId.trim().isEmpty()) {
             return Optional.empty();
         }
-        return codeList.stream()
-                .filter(code -> codeId.equals(code.getCode()))
-                .findFirst();
+        return source.findByCode(codeId);
     }
 
     /**
      * Returns the list of codes sorted according to the specified field and direction. [cite: 38]
      * Handles default sorting if parameters are invalid or null. [cite: 39]
+     * All orderings are computed once per snapshot, so this does not sort per request.
      *
      * @param orderBy The field to sort by (nullable, defaults to CODE).
      * @param orderDirection The direction to sort (nullable, defaults to ASC).
-     * @return A new list containing the sorted codes.
+     * @return An unmodifiable view of the codes in the requested order.
      */
     public List<Code> getSortedCodes(OrderByField orderBy, OrderByDirection orderDirection) {
+        return getSortedCodes(snapshot.get(), orderBy, orderDirection);
+    }
+
+    /**
+     * Returns the codes of the given snapshot sorted according to the specified field and direction.
+     *
+     * @param source The snapshot to read.
+     * @param orderBy The field to sort by (nullable, defaults to CODE).
+     * @param orderDirection The direction to sort (nullable, defaults to ASC).
+     * @return An unmodifiable view of the codes in the requested order.
+     */
+    public List<Code> getSortedCodes(CodeSnapshot source, OrderByField orderBy, OrderByDirection orderDirection) {
         OrderByField effectiveOrderBy = (orderBy == null) ? OrderByField.code : orderBy;
         OrderByDirection effectiveOrderDirection = (orderDirection == null) ? OrderByDirection.asc : orderDirection;
 
-        Comparator<Code> comparator = switch (effectiveOrderBy) {
-            case name -> Comparator.comparing(Code::getName, Comparator.nullsLast(String::compareToIgnoreCase));
-            case category -> Comparator.comparing(Code::getCategory, Comparator.nullsLast(String::compareToIgnoreCase));
-            case code -> Comparator.comparing(Code::getCode, Comparator.nullsLast(String::compareToIgnoreCase));
-        };
+        return source.getSorted(effectiveOrderBy, effectiveOrderDirection);
+    }
 
-        if (effectiveOrderDirection == OrderByDirection.desc) {
-            comparator = comparator.reversed();
-        }
+    /**
+     * Returns one page of the sorted code list using keyset (cursor) pagination.
+     * The cursor marks a position in the snapshot's precomputed ordering, so every page costs the same.
+     *
+     * @param orderBy The field to sort by (nullable, defaults to CODE).
+     * @param orderDirection The direction to sort (nullable, defaults to ASC).
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param limit The page size (nullable, defaults to 'app.paging.default-limit', capped at 'app.paging.max-limit').
+     * @return The page and the cursor of the next page.
+     * @throws IllegalArgumentException If the limit is not positive or the cursor is invalid.
+     */
+    public CodePage<Code> getSortedCodesPage(OrderByField orderBy, OrderByDirection orderDirection, String cursor, Integer limit) {
+        return getSortedCodesPage(snapshot.get(), orderBy, orderDirection, cursor, limit);
+    }
+
+    /**
+     * Returns one page of the sorted code list of the given snapshot.
+     *
+     * @param source The snapshot to read.
+     * @param orderBy The field to sort by (nullable, defaults to CODE).
+     * @param orderDirection The direction to sort (nullable, defaults to ASC).
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param limit The page size (nullable, defaults to 'app.paging.default-limit', capped at 'app.paging.max-limit').
+     * @return The page and the cursor of the next page.
+     * @throws IllegalArgumentException If the limit is not positive or the cursor is invalid.
+     */
+    public CodePage<Code> getSortedCodesPage(CodeSnapshot source, OrderByField orderBy, OrderByDirection orderDirection, String cursor, Integer limit) {
+        OrderByField effectiveOrderBy = (orderBy == null) ? OrderByField.code : orderBy;
+        OrderByDirection effectiveOrderDirection = (orderDirection == null) ? OrderByDirection.asc : orderDirection;
+
+        return source.pageSorted(effectiveOrderBy, effectiveOrderDirection, cursor, effectivePageSize(limit));
+    }
+
+    /**
+     * Returns one page of code identifiers in data file order using keyset (cursor) pagination.
+     *
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param limit The page size (nullable, defaults to 'app.paging.default-limit', capped at 'app.paging.max-limit').
+     * @return The page and the cursor of the next page.
+     * @throws IllegalArgumentException If the limit is not positive or the cursor is invalid.
+     */
+    public CodePage<String> getCodeIdsPage(String cursor, Integer limit) {
+        return getCodeIdsPage(snapshot.get(), cursor, limit);
+    }
+
+    /**
+     * Returns one page of code identifiers of the given snapshot in data file order.
+     *
+     * @param source The snapshot to read.
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param limit The page size (nullable, defaults to 'app.paging.default-limit', capped at 'app.paging.max-limit').
+     * @return The page and the cursor of the next page.
+     * @throws IllegalArgumentException If the limit is not positive or the cursor is invalid.
+     */
+    public CodePage<String> getCodeIdsPage(CodeSnapshot source, String cursor, Integer limit) {
+        return source.pageCodeIds(cursor, effectivePageSize(limit));
+    }
 
-        return codeList.stream()
-                .sorted(comparator)
-                .collect(Collectors.toList());
+    private int effectivePageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit must be at least 1");
+        }
+        return Math.min(limit, maxPageSize);
     }
 
     /**
      * Retrieves all codes, identifies those needing Base64 decoding (in name or type),
-     * calls the external Base64 decoding service for them, and merges the results.
+     * decodes them through the Base64 service (or in-process with {@code app.decode.mode=local}) and merges the results.
+     * <p>
+     * A successful result is published on the snapshot it was decoded from, so repeated calls cost neither
+     * a service round trip nor a merge until a reload publishes a new snapshot. Concurrent callers share a
+     * single service call. A failed call is never memoized: the original codes are returned and the service
+     * is retried once an exponential backoff (starting at {@code app.base64-service.retry.initial-backoff-ms},
+     * capped at {@code app.base64-service.retry.max-backoff-ms}) has elapsed. A new snapshot resets the backoff.
+     * <p>
+     * With {@code app.decode.eager=true} every published snapshot is decoded in the background and this method
+     * never decodes on the caller's thread; until {@link CodeSnapshot#isDecodedReady()} it returns the original codes.
      *
      * @return A list of codes, with relevant fields decoded if applicable.
      */
     public List<Code> getDecodedCodes() {
-        List<Code> originalCodes = getAllCodes();
+        return getDecodedCodes(snapshot.get());
+    }
+
+    /**
+     * Same as {@link #getDecodedCodes()} for a snapshot the caller already holds.
+     *
+     * @param current The snapshot to decode.
+     * @return A list of codes, with relevant fields decoded if applicable.
+     */
+    public List<Code> getDecodedCodes(CodeSnapshot current) {
+        List<Code> decoded = current.getDecodedCodes();
+        if (decoded != null) {
+            return decoded;
+        }
+        if (eagerDecode) {
+            log.debug("Decoded view of snapshot version {} is not ready yet; returning original codes.", current.getVersion());
+            return current.getCodes();
+        }
+        decoded = decodeSnapshot(current);
+        return decoded != null ? decoded : current.getCodes();
+    }
+
+    /**
+     * Decodes a snapshot and publishes the result on it, unless it is already decoded
+     * or a previous failure's backoff has not elapsed.
+     * <p>
+     * Callers for the same snapshot are coalesced: the first one runs the decode without holding the lock and
+     * every caller arriving while it runs waits for and shares its result (counted in
+     * {@link #getCoalescedDecodeCallers()}).
+     * <p>
+     * When some batches fail the successfully decoded rows are still returned to the caller, but the
+     * partial view is not published and the snapshot is retried after the backoff.
+     *
+     * @param current The snapshot to decode.
+     * @return The decoded (possibly partially decoded) codes, or null if decoding failed completely.
+     */
+    private List<Code> decodeSnapshot(CodeSnapshot current) {
+        CompletableFuture<List<Code>> result;
+        DecodeFailure failure;
+        boolean leader;
+        synchronized (decodeLock) {
+            List<Code> decoded = current.getDecodedCodes();
+            if (decoded != null) {
+                return decoded;
+            }
+            InFlightDecode running = inFlightDecode;
+            if (running != null && running.version() == current.getVersion()) {
+                coalescedDecodeCallers.increment();
+                result = running.result();
+                failure = null;
+                leader = false;
+            } else {
+                failure = decodeFailure;
+                if (failure != null && failure.version() == current.getVersion() && System.nanoTime() - failure.retryAt() < 0) {
+                    log.debug("Base64 service retry backoff active; returning last partial result.");
+                    return failure.partial();
+                }
+                result = new CompletableFuture<>();
+                inFlightDecode = new InFlightDecode(current.getVersion(), result);
+                decodeRuns.increment();
+                leader = true;
+            }
+        }
+        if (!leader) {
+            log.debug("Joining in-flight decode of snapshot version {}.", current.getVersion());
+            return result.join();
+        }
+
+        List<Code> decoded = null;
+        try {
+            decoded = runDecode(current, failure);
+        } finally {
+            synchronized (decodeLock) {
+                if (inFlightDecode != null && inFlightDecode.result() == result) {
+                    inFlightDecode = null;
+                }
+            }
+            result.complete(decoded);
+        }
+        return decoded;
+    }
+
+    /**
+     * Performs one decode of a snapshot outside the lock, then publishes the result or records the failure.
+     * An unexpected exception from the decode is a failure like a failed service call, with the same backoff.
+     */
+    private List<Code> runDecode(CodeSnapshot current, DecodeFailure previousFailure) {
+        long started = System.nanoTime();
+        DecodeOutcome outcome;
+        try {
+            outcome = decodeCodes(current.getCodes());
+        } catch (RuntimeException e) {
+            log.error("Decoding snapshot version {} failed: {}", current.getVersion(), e.getMessage(), e);
+            outcome = null;
+        }
+        Timer.builder("codes.decode")
+                .description("Time to decode a snapshot")
+                .tag("mode", decodeMode.name())
+                .tag("outcome", outcome == null ? "failed" : outcome.complete() ? "complete" : "partial")
+                .register(meterRegistry)
+                .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        synchronized (decodeLock) {
+            if (outcome == null || !outcome.complete()) {
+                long backoffMs = previousFailure != null && previousFailure.version() == current.getVersion()
+                        ? Math.min(previousFailure.backoffMs() * 2, decodeMaxBackoffMs)
+                        : Math.min(decodeInitialBackoffMs, decodeMaxBackoffMs);
+                List<Code> partial = outcome != null ? outcome.codes() : null;
+                decodeFailure = new DecodeFailure(current.getVersion(), backoffMs,
+                        System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMs), partial);
+                log.warn("Base64 decoding {}; retrying in {} ms.", partial != null ? "was incomplete" : "failed", backoffMs);
+                return partial;
+            }
+            decodeFailure = null;
+            current.publishDecoded(outcome.codes());
+            return outcome.codes();
+        }
+    }
+
+    /**
+     * @return How many decodes of a snapshot were actually run (service calls or in-process passes).
+     */
+    public long getDecodeRuns() {
+        return decodeRuns.sum();
+    }
+
+    /**
+     * @return How many callers joined a decode that was already in flight instead of starting their own.
+     */
+    public long getCoalescedDecodeCallers() {
+        return coalescedDecodeCallers.sum();
+    }
+
+    /**
+     * Queues a background decode of a freshly published snapshot when eager decoding is enabled.
+     */
+    private void scheduleEagerDecode(CodeSnapshot target, long delayMs) {
+        if (eagerDecode) {
+            decodeExecutor.schedule(() -> eagerDecode(target), delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Background decode stage. Gives up once a newer snapshot has been published
+     * and reschedules itself after the backoff when the service call fails.
+     */
+    private void eagerDecode(CodeSnapshot target) {
+        if (snapshot.get() != target || target.isDecodedReady()) {
+            return;
+        }
+        long started = System.nanoTime();
+        decodeSnapshot(target);
+        if (target.isDecodedReady()) {
+            log.info("Decoded view of snapshot version {} ready after {} ms.", target.getVersion(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            return;
+        }
+        long retryDelayMs;
+        synchronized (decodeLock) {
+            DecodeFailure failure = decodeFailure;
+            retryDelayMs = failure != null && failure.version() == target.getVersion()
+                    ? Math.max(0, TimeUnit.NANOSECONDS.toMillis(failure.retryAt() - System.nanoTime()))
+                    : decodeInitialBackoffMs;
+        }
+        scheduleEagerDecode(target, retryDelayMs);
+    }
+
+    @PreDestroy
+    private void stopDecoder() {
+        decodeExecutor.shutdownNow();
+    }
+
+    /**
+     * Decodes one snapshot's codes with the configured {@link DecodeMode}.
+     * Each distinct encoded {@code name} or {@code type} value is decoded once; the results are mapped back
+     * to the rows by position in the deduplicated value list.
+     *
+     * @param originalCodes The codes of the snapshot.
+     * @return The codes with decoded rows substituted, or null if nothing could be decoded.
+     */
+    DecodeOutcome decodeCodes(List<Code> originalCodes) {
         if (originalCodes.isEmpty()) {
-            return originalCodes;
+            return new DecodeOutcome(originalCodes, true);
         }
 
-        List<Code> codesToDecode = originalCodes.stream()
-                .filter(code -> (code.getName() != null && code.getName().startsWith(BASE64_PREFIX)) ||
-                        (code.getType() != null && code.getType().startsWith(BASE64_PREFIX)))
-                .collect(Collectors.toList());
+        // The data file may repeat an identifier; only the first row counts, matching getCodeById.
+        Map<String, Code> codesToDecode = new LinkedHashMap<>();
+        Map<String, Integer> valuePositions = new LinkedHashMap<>();
+        for (Code code : originalCodes) {
+            if (Base64FieldDecoder.needsDecoding(code) && codesToDecode.putIfAbsent(code.getCode(), code) == null) {
+                addEncodedValue(valuePositions, code.getName());
+                addEncodedValue(valuePositions, code.getType());
+            }
+        }
 
         if (codesToDecode.isEmpty()) {
             log.debug("No codes found requiring Base64 decoding.");
-            return originalCodes;
+            return new DecodeOutcome(originalCodes, true);
         }
 
-        log.debug("Found {} codes requiring Base64 decoding. Calling service at {}", codesToDecode.size(), base64ServiceUrl);
-
-        List<Code> decodedCodesFromService = callBase64Service(codesToDecode);
+        List<String> encodedValues = new ArrayList<>(valuePositions.keySet());
+        List<String> decodedValues;
+        boolean complete = true;
+        if (decodeMode == DecodeMode.local) {
+            log.debug("Decoding {} distinct values of {} codes in-process.", encodedValues.size(), codesToDecode.size());
+            decodedValues = encodedValues.stream().map(Base64FieldDecoder::decodeValue).collect(Collectors.toList());
+        } else {
+            log.debug("Found {} distinct values in {} codes requiring Base64 decoding. Calling service at {}",
+                    encodedValues.size(), codesToDecode.size(), base64ServiceUrl);
+            BatchedDecode batched = callBase64ServiceInBatches(encodedValues);
+            if (batched.failedBatches() == batched.batches()) {
+                log.warn("Base64 decoding service call seemed unsuccessful (returned empty list).");
+                return null;
+            }
+            decodedValues = batched.decoded();
+            complete = batched.failedBatches() == 0;
+        }
 
-        if (decodedCodesFromService.isEmpty() && !codesToDecode.isEmpty()) {
-            log.warn("Base64 decoding service call seemed unsuccessful (returned empty list). Returning original codes.");
-            return originalCodes;
+        Map<String, Code> decodedMap = new HashMap<>(codesToDecode.size() * 4 / 3 + 1);
+        for (Code code : codesToDecode.values()) {
+            String name = decodedValue(code.getName(), valuePositions, decodedValues);
+            String type = decodedValue(code.getType(), valuePositions, decodedValues);
+            if (name != code.getName() || type != code.getType()) {
+                decodedMap.put(code.getCode(), new Code(code.getCode(), type, name, code.getCategory()));
+            }
         }
 
-        Map<String, Code> decodedMap = decodedCodesFromService.stream()
-                .collect(Collectors.toMap(Code::getCode, Function.identity()));
+        return new DecodeOutcome(new DecodedCodeList(originalCodes, decodedMap), complete);
+    }
 
-        List<Code> finalMergedList = originalCodes.stream()
-                .map(originalCode -> decodedMap.getOrDefault(originalCode.getCode(), originalCode))
-                .collect(Collectors.toList());
+    private static void addEncodedValue(Map<String, Integer> valuePositions, String value) {
+        if (value != null && value.startsWith(Base64FieldDecoder.BASE64_PREFIX)) {
+            valuePositions.putIfAbsent(value, valuePositions.size());
+        }
+    }
 
-        return finalMergedList;
+    /**
+     * @return The decoded value at the position of {@code value}, or {@code value} itself if it was not
+     * encoded, its batch failed, or it decoded to the same string.
+     */
+    private static String decodedValue(String value, Map<String, Integer> valuePositions, List<String> decodedValues) {
+        Integer position = value != null ? valuePositions.get(value) : null;
+        if (position == null) {
+            return value;
+        }
+        String decoded = decodedValues.get(position);
+        return decoded == null || decoded.equals(value) ? value : decoded;
     }
 
     /**
-     * Calls the external Base64 decoding service.
+     * Splits the values into batches of {@code app.base64-service.batch.size} and sends them to the Base64 service
+     * concurrently on virtual threads, with at most {@code app.base64-service.batch.parallelism} calls in flight.
+     * Latency is therefore bounded by the slowest batch rather than the whole payload. A failed batch only
+     * leaves its own values undecoded.
      *
-     * @param codesToDecode List of codes to send for decoding.
-     * @return List of decoded codes received from the service, or empty list on error.
+     * @param encodedValues The distinct values to decode.
+     * @return The decoded values in input order (null where the batch failed) and the number of failed batches.
      */
-    private List<Code> callBase64Service(List<Code> codesToDecode) {
-        String decodeUrl = base64ServiceUrl + "/decode";
+    private BatchedDecode callBase64ServiceInBatches(List<String> encodedValues) {
+        int batchSize = Math.max(1, decodeBatchSize);
+        int batchCount = (encodedValues.size() + batchSize - 1) / batchSize;
+        if (batchCount == 1) {
+            List<String> decoded = base64ServiceClient.decodeValues(encodedValues);
+            return decoded.isEmpty()
+                    ? new BatchedDecode(Collections.nCopies(encodedValues.size(), null), 1, 1)
+                    : new BatchedDecode(decoded, 0, 1);
+        }
 
-        try {
-            ResponseEntity<List<Code>> response = restTemplate.exchange(
-                    decodeUrl,
-                    HttpMethod.POST,
-                    new org.springframework.http.HttpEntity<>(codesToDecode),
-                    new ParameterizedTypeReference<List<Code>>() {}
-            );
-
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                log.debug("Successfully received {} decoded codes from Base64 service", response.getBody().size());
-                return response.getBody();
+        List<List<String>> results = new ArrayList<>(Collections.nCopies(batchCount, null));
+        Semaphore permits = new Semaphore(Math.max(1, decodeParallelism));
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int batch = 0; batch < batchCount; batch++) {
+                int index = batch;
+                List<String> slice = encodedValues.subList(batch * batchSize, Math.min((batch + 1) * batchSize, encodedValues.size()));
+                executor.execute(() -> {
+                    permits.acquireUninterruptibly();
+                    try {
+                        List<String> decoded = base64ServiceClient.decodeValues(slice);
+                        synchronized (results) {
+                            results.set(index, decoded);
+                        }
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+
+        List<String> decoded = new ArrayList<>(encodedValues.size());
+        int failedBatches = 0;
+        for (int batch = 0; batch < batchCount; batch++) {
+            List<String> result = results.get(batch);
+            if (result == null || result.isEmpty()) {
+                failedBatches++;
+                int sliceSize = Math.min((batch + 1) * batchSize, encodedValues.size()) - batch * batchSize;
+                decoded.addAll(Collections.nCopies(sliceSize, null));
             } else {
-                log.error("Base64 service call failed with status: {}", response.getStatusCode());
-                return Collections.emptyList();
+                decoded.addAll(result);
             }
-        } catch (RestClientException e) {
-            log.error("Error calling Base64 service at {}: {}", decodeUrl, e.getMessage());
-            return Collections.emptyList();
         }
+        if (failedBatches > 0) {
+            log.warn("{} of {} Base64 decode batches failed; their values stay encoded.", failedBatches, batchCount);
+        }
+        return new BatchedDecode(decoded, failedBatches, batchCount);
+    }
+
+    /**
+     * The last failed decode attempt of a snapshot.
+     *
+     * @param version The snapshot version the attempt was made for.
+     * @param backoffMs The backoff applied after this failure.
+     * @param retryAt The {@link System#nanoTime()} after which the service may be called again.
+     * @param partial The partially decoded codes of the attempt, or null if nothing was decoded.
+     */
+    private record DecodeFailure(long version, long backoffMs, long retryAt, List<Code> partial) {
+    }
+
+    /**
+     * A decode that is currently running; callers for the same snapshot wait on its result instead of starting another.
+     *
+     * @param version The snapshot version being decoded.
+     * @param result Completes with the decoded codes, or null if decoding failed.
+     */
+    private record InFlightDecode(long version, CompletableFuture<List<Code>> result) {
+    }
+
+    /**
+     * The result of decoding one snapshot.
+     *
+     * @param codes The merged codes.
+     * @param complete False if some rows could not be decoded because their batch failed.
+     */
+    record DecodeOutcome(List<Code> codes, boolean complete) {
+    }
+
+    /**
+     * The combined result of all decode batches.
+     *
+     * @param decoded The decoded values by position, with null for the values of failed batches.
+     * @param failedBatches The number of batches that failed.
+     * @param batches The number of batches sent.
+     */
+    private record BatchedDecode(List<String> decoded, int failedBatches, int batches) {
+    }
+
+    /**
+     * Read-only view of a snapshot's codes with the decoded rows substituted by identifier.
+     * Only the decoded rows are held, so the view adds no per-row copy of the snapshot.
+     */
+    private static final class DecodedCodeList extends AbstractList<Code> implements RandomAccess {
+
+        private final List<Code> originalCodes;
+        private final Map<String, Code> decodedByCode;
+
+        DecodedCodeList(List<Code> originalCodes, Map<String, Code> decodedByCode) {
+            this.originalCodes = originalCodes;
+            this.decodedByCode = decodedByCode;
+        }
+
+        @Override
+        public Code get(int index) {
+            Code original = originalCodes.get(index);
+            return decodedByCode.getOrDefault(original.getCode(), original);
+        }
+
+        @Override
+        public int size() {
+            return originalCodes.size();
+        }
+    }
+
+    /**
+     * A parsed data file.
+     *
+     * @param store The parsed rows.
+     * @param contentHash URL-safe hash of the raw file content.
+     * @param stamp The version of the file that was read, or null for the empty data set used when it could not be.
+     */
+    private record DataFile(CodeStore store, String contentHash, DataFileStamp stamp) {
     }
 
 }
\ No newline at end of file
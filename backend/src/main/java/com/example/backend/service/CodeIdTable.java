@@ -0,0 +1,117 @@
+package com.example.backend.service;
+
+/**
+ * Open-addressing hash table from code identifier to the first row carrying it, shared by the storage modes.
+ * <p>
+ * The table holds only row numbers (stored +1 so that 0 marks an empty slot) and probes linearly; hashing and
+ * comparing identifiers is left to {@link Keys}, so each store can work on its own representation of the column.
+ * When the data file contains duplicate identifiers the first occurrence wins, which matches the previous
+ * linear {@code findFirst()} lookup.
+ */
+final class CodeIdTable {
+
+    /**
+     * Access to the identifier column a table is built over.
+     * {@link #hash(int)} and {@link #hash(String)} must agree for equal identifiers.
+     */
+    interface Keys {
+
+        /**
+         * @return Whether the row has no identifier; such rows are not indexed.
+         */
+        boolean isNull(int row);
+
+        /**
+         * @return The hash of the row's identifier.
+         */
+        int hash(int row);
+
+        /**
+         * @return The hash of an identifier being looked up.
+         */
+        int hash(String codeId);
+
+        /**
+         * @return Whether two rows have the same, non-null identifier.
+         */
+        boolean valueEquals(int row, int otherRow);
+
+        /**
+         * @return Whether the row's identifier equals the given one.
+         */
+        boolean valueEquals(int row, String codeId);
+    }
+
+    private final Keys keys;
+    private final int[] slots;
+    private final int uniqueCount;
+
+    /**
+     * Indexes the identifiers of the given rows.
+     *
+     * @param keys The identifier column.
+     * @param size The number of rows.
+     */
+    CodeIdTable(Keys keys, int size) {
+        this.keys = keys;
+        this.slots = new int[capacity(size)];
+        int mask = slots.length - 1;
+        int unique = 0;
+        for (int row = 0; row < size; row++) {
+            if (keys.isNull(row)) {
+                continue;
+            }
+            int slot = keys.hash(row) & mask;
+            while (slots[slot] != 0 && !keys.valueEquals(row, slots[slot] - 1)) {
+                slot = (slot + 1) & mask;
+            }
+            if (slots[slot] == 0) {
+                slots[slot] = row + 1;
+                unique++;
+            }
+        }
+        this.uniqueCount = unique;
+    }
+
+    /**
+     * @param codeId The identifier.
+     * @return The first row with that identifier, or -1 if there is none.
+     */
+    int indexOf(String codeId) {
+        if (codeId == null) {
+            return -1;
+        }
+        int mask = slots.length - 1;
+        for (int slot = keys.hash(codeId) & mask; ; slot = (slot + 1) & mask) {
+            int entry = slots[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            if (keys.valueEquals(entry - 1, codeId)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    /**
+     * @return The number of distinct identifiers.
+     */
+    int uniqueCount() {
+        return uniqueCount;
+    }
+
+    /**
+     * @return An estimate of the heap retained by the table itself, not counting the column.
+     */
+    long heapBytes() {
+        return CodeStore.align(16 + 4L * slots.length);
+    }
+
+    /**
+     * Size of a table holding the given number of rows at a load factor of at most 0.75.
+     */
+    static int capacity(int size) {
+        int minimum = (int) Math.min(1 << 30, (long) (size / 0.75) + 1);
+        return Math.max(16, Integer.highestOneBit(minimum - 1) << 1);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.backend.service;
+
+import java.util.List;
+
+/**
+ * One page of a listing.
+ *
+ * @param items The rows on this page.
+ * @param nextCursor Opaque cursor for the following page, or null if this is the last page.
+ * @param <T> The row type.
+ */
+public record CodePage<T>(List<T> items, String nextCursor) {
+}
@@ -0,0 +1,261 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.Code;
+import com.example.backend.dto.OrderByDirection;
+import com.example.backend.dto.OrderByField;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Immutable, versioned view of one loaded data file together with the indexes derived from it.
+ * Snapshots are published as a whole, so a request that reads the current snapshot once keeps
+ * working on a consistent data set even if a reload is published while it is running.
+ * <p>
+ * The decoded view of the rows is the only part attached after publication: it is set once,
+ * when decoding of this data set first succeeds, and never changes afterwards.
+ */
+public final class CodeSnapshot {
+
+    /** Content hash used for snapshots that were not built from a data file. */
+    static final String EMPTY_CONTENT_HASH = "empty";
+
+    private static final int FILE_ORDER_VIEW = -1;
+
+    private final long version;
+    private final Instant loadedAt;
+    private final String contentHash;
+    private final CodeStorageMode storageMode;
+    private final CodeStore store;
+    private final SortedCodeViews sortedViews;
+    private volatile List<Code> decodedCodes;
+
+    private CodeSnapshot(long version, CodeStorageMode storageMode, CodeStore store, String contentHash) {
+        this.version = version;
+        this.contentHash = contentHash;
+        this.loadedAt = Instant.now();
+        this.storageMode = storageMode;
+        this.store = store;
+        this.sortedViews = SortedCodeViews.build(store.asList());
+    }
+
+    /**
+     * Builds a snapshot and its sorted views on top of an already built store.
+     *
+     * @param version The version number assigned to this data set.
+     * @param storageMode The mode the store was built with.
+     * @param store The rows in data file order.
+     * @param contentHash A hash of the data file content the rows were parsed from.
+     * @return The new snapshot.
+     */
+    static CodeSnapshot build(long version, CodeStorageMode storageMode, CodeStore store, String contentHash) {
+        return new CodeSnapshot(version, storageMode, store, contentHash);
+    }
+
+    /**
+     * @return An empty snapshot with version 0, used until the first load completes.
+     */
+    static CodeSnapshot empty() {
+        return build(0, CodeStorageMode.heap, CodeStore.builder(CodeStorageMode.heap, false).build(), EMPTY_CONTENT_HASH);
+    }
+
+    /**
+     * @return The version of this data set. Versions increase with every published reload.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns a hash of the data file content this snapshot was built from, computed once at load time.
+     * Unlike the version it stays the same when an unchanged file is loaded again (for example after a
+     * restart), which makes it suitable as the basis of HTTP entity tags.
+     *
+     * @return A URL-safe content hash.
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * @return The time the snapshot was built.
+     */
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * @return All codes in data file order.
+     */
+    public List<Code> getCodes() {
+        return store.asList();
+    }
+
+    /**
+     * @return The identifiers of all codes in data file order.
+     */
+    public List<String> getCodeIds() {
+        return store.codeIds();
+    }
+
+    /**
+     * @return True once the decoded view of this data set has been published.
+     */
+    public boolean isDecodedReady() {
+        return decodedCodes != null;
+    }
+
+    /**
+     * @return The codes with Base64 fields decoded, or null until decoding has succeeded.
+     */
+    public List<Code> getDecodedCodes() {
+        return decodedCodes;
+    }
+
+    /**
+     * Publishes the decoded view of this data set. Only the first call has an effect.
+     *
+     * @param codes The codes with Base64 fields decoded.
+     */
+    synchronized void publishDecoded(List<Code> codes) {
+        if (decodedCodes == null) {
+            decodedCodes = codes;
+        }
+    }
+
+    /**
+     * @return The number of distinct code identifiers.
+     */
+    public int getUniqueCodeCount() {
+        return store.uniqueCodeCount();
+    }
+
+    /**
+     * @return How the rows of this snapshot are held in memory.
+     */
+    public CodeStorageMode getStorageMode() {
+        return storageMode;
+    }
+
+    /**
+     * @return Estimated heap retained by the rows, the lookup index and the sorted views, in bytes.
+     */
+    public long estimateHeapBytes() {
+        return store.estimateHeapBytes() + sortedViews.estimateHeapBytes();
+    }
+
+    /**
+     * @return Direct memory retained by the rows, in bytes (0 unless compact storage is off-heap).
+     */
+    public long getOffHeapBytes() {
+        return store.offHeapBytes();
+    }
+
+    /**
+     * @param field A sort field.
+     * @return How long building the orderings of that field took when this snapshot was built, in nanoseconds.
+     */
+    long getSortNanos(OrderByField field) {
+        return sortedViews.getSortNanos(field);
+    }
+
+    /**
+     * Looks a code up by identifier in O(1).
+     *
+     * @param codeId The identifier.
+     * @return The first code with that identifier, if any.
+     */
+    public Optional<Code> findByCode(String codeId) {
+        return Optional.ofNullable(store.findByCode(codeId));
+    }
+
+    /**
+     * @param orderBy The field to sort by.
+     * @param direction The sort direction.
+     * @return A read-only view of the codes in the requested order.
+     */
+    public List<Code> getSorted(OrderByField orderBy, OrderByDirection direction) {
+        return sortedViews.get(orderBy, direction);
+    }
+
+    /**
+     * Returns one page of the sorted listing.
+     * With a cursor from this snapshot the page starts at the stored position in O(1).
+     * With a cursor from an older snapshot it continues after the last row the client saw.
+     *
+     * @param orderBy The field to sort by.
+     * @param direction The sort direction.
+     * @param cursor The cursor from the previous page, or null for the first page.
+     * @param limit The maximum number of rows on the page (at least 1).
+     * @return The page and the cursor for the next one.
+     * @throws IllegalArgumentException If the cursor is malformed or belongs to another listing.
+     */
+    public CodePage<Code> pageSorted(OrderByField orderBy, OrderByDirection direction, String cursor, int limit) {
+        int view = orderBy.ordinal() * OrderByDirection.values().length + direction.ordinal();
+        List<Code> rows = getSorted(orderBy, direction);
+        int start = 0;
+        if (cursor != null) {
+            PageCursor previous = decodeCursor(cursor, view);
+            start = previous.version() == version
+                    ? previous.position()
+                    : sortedViews.resumeAfter(orderBy, direction, previous.lastKey(), previous.lastCode(), previous.lastRank());
+        }
+        start = Math.min(start, rows.size());
+        int end = (int) Math.min((long) start + limit, rows.size());
+
+        String nextCursor = null;
+        if (end < rows.size()) {
+            Code last = rows.get(end - 1);
+            nextCursor = new PageCursor(view, version, end, SortedCodeViews.sortKey(last, orderBy), last.getCode(),
+                    sortedViews.rankInRun(orderBy, direction, end - 1)).encode();
+        }
+        return new CodePage<>(rows.subList(start, end), nextCursor);
+    }
+
+    /**
+     * Returns one page of code identifiers in data file order.
+     * A cursor from an older snapshot continues at the same position if the row before it still has the
+     * identifier the client saw last, which also covers null and repeated identifiers. Otherwise it continues
+     * after the first row with that identifier, or at the same position if that identifier no longer exists.
+     *
+     * @param cursor The cursor from the previous page, or null for the first page.
+     * @param limit The maximum number of identifiers on the page (at least 1).
+     * @return The page and the cursor for the next one.
+     * @throws IllegalArgumentException If the cursor is malformed or belongs to another listing.
+     */
+    public CodePage<String> pageCodeIds(String cursor, int limit) {
+        List<String> ids = getCodeIds();
+        int start = 0;
+        if (cursor != null) {
+            PageCursor previous = decodeCursor(cursor, FILE_ORDER_VIEW);
+            if (previous.version() == version || sameCodeAt(ids, previous.position() - 1, previous.lastCode())) {
+                start = previous.position();
+            } else {
+                int lastRow = store.indexOf(previous.lastCode());
+                start = lastRow >= 0 ? lastRow + 1 : previous.position();
+            }
+        }
+        start = Math.min(start, ids.size());
+        int end = (int) Math.min((long) start + limit, ids.size());
+
+        String nextCursor = null;
+        if (end < ids.size()) {
+            nextCursor = new PageCursor(FILE_ORDER_VIEW, version, end, null, ids.get(end - 1), -1).encode();
+        }
+        return new CodePage<>(ids.subList(start, end), nextCursor);
+    }
+
+    private static boolean sameCodeAt(List<String> ids, int row, String codeId) {
+        return row >= 0 && row < ids.size() && Objects.equals(ids.get(row), codeId);
+    }
+
+    private static PageCursor decodeCursor(String cursor, int view) {
+        PageCursor decoded = PageCursor.decode(cursor);
+        if (decoded.view() != view) {
+            throw new IllegalArgumentException("Page cursor belongs to a different listing");
+        }
+        return decoded;
+    }
+}
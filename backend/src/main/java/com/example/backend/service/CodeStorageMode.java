@@ -0,0 +1,11 @@
+package com.example.backend.service;
+
+/**
+ * How a loaded data set is held in memory.
+ */
+public enum CodeStorageMode {
+    /** One Code object per row, exactly as parsed. Fastest access, largest footprint. */
+    heap,
+    /** Dictionary-encoded and byte-packed columns; Code objects are materialized on access. */
+    compact
+}
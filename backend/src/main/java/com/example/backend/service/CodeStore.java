@@ -0,0 +1,106 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.Code;
+
+import java.util.List;
+
+/**
+ * In-memory storage of one loaded data set.
+ * Implementations are immutable once built and safe to read from any thread.
+ */
+interface CodeStore {
+
+    /**
+     * @return The number of rows.
+     */
+    int size();
+
+    /**
+     * @return A read-only list of all rows in data file order.
+     */
+    List<Code> asList();
+
+    /**
+     * @return A read-only list of the code identifiers in data file order.
+     */
+    List<String> codeIds();
+
+    /**
+     * Finds the position of the first row with the given identifier.
+     *
+     * @param codeId The identifier.
+     * @return The row number, or -1 if there is none.
+     */
+    int indexOf(String codeId);
+
+    /**
+     * Looks up the first row with the given identifier.
+     *
+     * @param codeId The identifier.
+     * @return The row, or null if there is none.
+     */
+    default Code findByCode(String codeId) {
+        int row = indexOf(codeId);
+        return row < 0 ? null : asList().get(row);
+    }
+
+    /**
+     * @return The number of distinct code identifiers.
+     */
+    int uniqueCodeCount();
+
+    /**
+     * @return An estimate of the Java heap retained by this store, in bytes.
+     */
+    long estimateHeapBytes();
+
+    /**
+     * @return The direct (off-heap) memory retained by this store, in bytes.
+     */
+    long offHeapBytes();
+
+    /**
+     * Accumulates parsed rows and builds the store.
+     */
+    interface Builder {
+
+        void add(String code, String type, String name, String category);
+
+        int size();
+
+        CodeStore build();
+    }
+
+    /**
+     * Creates a builder for the requested storage mode.
+     *
+     * @param mode The storage mode.
+     * @param offHeap For compact mode, whether packed strings are kept in direct buffers.
+     * @return A new builder.
+     */
+    static Builder builder(CodeStorageMode mode, boolean offHeap) {
+        return switch (mode) {
+            case heap -> new HeapCodeStore.Builder();
+            case compact -> new CompactCodeStore.Builder(offHeap);
+        };
+    }
+
+    /**
+     * Rough size of a String of the given value, assuming compressed oops and compact strings.
+     */
+    static long estimateStringBytes(String value) {
+        if (value == null) {
+            return 0;
+        }
+        boolean latin1 = true;
+        for (int i = 0; i < value.length() && latin1; i++) {
+            latin1 = value.charAt(i) < 256;
+        }
+        long payload = latin1 ? value.length() : 2L * value.length();
+        return 24 + align(16 + payload);
+    }
+
+    static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -0,0 +1,419 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.Code;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Column-oriented storage for large data sets.
+ * <p>
+ * Low-cardinality columns ({@code type}, {@code category}) are dictionary-encoded into one byte
+ * per row. {@code code} and {@code name} are stored as UTF-8 in one packed buffer per column,
+ * optionally in direct (off-heap) memory. Lookups by identifier use a {@link CodeIdTable} hashed over
+ * the packed bytes; the identifier being looked up is hashed and compared in its UTF-8 form character by
+ * character, so a lookup allocates nothing. {@link Code} objects are only created
+ * when a row is read, which in practice means while a response is being serialized.
+ */
+final class CompactCodeStore implements CodeStore {
+
+    private final int size;
+    private final PackedStringColumn codeColumn;
+    private final PackedStringColumn nameColumn;
+    private final DictionaryColumn typeColumn;
+    private final DictionaryColumn categoryColumn;
+    private final CodeIdTable codeTable;
+
+    private final List<Code> rows = new RowList();
+    private final List<String> codeIds = new CodeIdList();
+
+    private CompactCodeStore(int size, PackedStringColumn codeColumn, PackedStringColumn nameColumn,
+                             DictionaryColumn typeColumn, DictionaryColumn categoryColumn) {
+        this.size = size;
+        this.codeColumn = codeColumn;
+        this.nameColumn = nameColumn;
+        this.typeColumn = typeColumn;
+        this.categoryColumn = categoryColumn;
+        this.codeTable = new CodeIdTable(codeColumn, size);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public List<Code> asList() {
+        return rows;
+    }
+
+    @Override
+    public List<String> codeIds() {
+        return codeIds;
+    }
+
+    @Override
+    public int indexOf(String codeId) {
+        return codeTable.indexOf(codeId);
+    }
+
+    @Override
+    public int uniqueCodeCount() {
+        return codeTable.uniqueCount();
+    }
+
+    @Override
+    public long estimateHeapBytes() {
+        return codeColumn.heapBytes()
+                + nameColumn.heapBytes()
+                + typeColumn.heapBytes()
+                + categoryColumn.heapBytes()
+                + codeTable.heapBytes();
+    }
+
+    @Override
+    public long offHeapBytes() {
+        return codeColumn.offHeapBytes() + nameColumn.offHeapBytes();
+    }
+
+    private Code row(int row) {
+        return new Code(codeColumn.get(row), typeColumn.get(row), nameColumn.get(row), categoryColumn.get(row));
+    }
+
+    private static int hash(byte[] bytes, int offset, int length) {
+        int h = 1;
+        for (int i = offset; i < offset + length; i++) {
+            h = 31 * h + bytes[i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Same as {@link #hash(byte[], int, int)} over {@code value.getBytes(UTF_8)}, without encoding into an array.
+     */
+    private static int utf8Hash(String value) {
+        int h = 1;
+        for (int i = 0; i < value.length(); ) {
+            int codePoint = codePointAt(value, i);
+            i += Character.charCount(codePoint);
+            int length = utf8Length(codePoint);
+            for (int k = 0; k < length; k++) {
+                h = 31 * h + utf8Byte(codePoint, length, k);
+            }
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return The code point at {@code index}, or '?' for an unpaired surrogate, as {@link String#getBytes} encodes it.
+     */
+    private static int codePointAt(String value, int index) {
+        char c = value.charAt(index);
+        if (!Character.isSurrogate(c)) {
+            return c;
+        }
+        if (Character.isHighSurrogate(c) && index + 1 < value.length() && Character.isLowSurrogate(value.charAt(index + 1))) {
+            return Character.toCodePoint(c, value.charAt(index + 1));
+        }
+        return '?';
+    }
+
+    private static int utf8Length(int codePoint) {
+        return codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+    }
+
+    /**
+     * @return Byte {@code k} of the {@code length}-byte UTF-8 encoding of {@code codePoint}.
+     */
+    private static byte utf8Byte(int codePoint, int length, int k) {
+        if (length == 1) {
+            return (byte) codePoint;
+        }
+        int shift = 6 * (length - 1 - k);
+        if (k == 0) {
+            return (byte) ((0xFF00 >> length) | (codePoint >> shift));
+        }
+        return (byte) (0x80 | ((codePoint >> shift) & 0x3F));
+    }
+
+    private final class RowList extends AbstractList<Code> implements RandomAccess {
+
+        @Override
+        public Code get(int index) {
+            return row(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private final class CodeIdList extends AbstractList<String> implements RandomAccess {
+
+        @Override
+        public String get(int index) {
+            return codeColumn.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    static final class Builder implements CodeStore.Builder {
+
+        private final boolean offHeap;
+        private final PackedStringColumn.Builder codes = new PackedStringColumn.Builder();
+        private final PackedStringColumn.Builder names = new PackedStringColumn.Builder();
+        private final DictionaryColumn.Builder types = new DictionaryColumn.Builder();
+        private final DictionaryColumn.Builder categories = new DictionaryColumn.Builder();
+        private int size;
+
+        Builder(boolean offHeap) {
+            this.offHeap = offHeap;
+        }
+
+        @Override
+        public void add(String code, String type, String name, String category) {
+            codes.add(code);
+            names.add(name);
+            types.add(type);
+            categories.add(category);
+            size++;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public CodeStore build() {
+            return new CompactCodeStore(size, codes.build(offHeap), names.build(offHeap), types.build(), categories.build());
+        }
+    }
+
+    /**
+     * Strings of one column encoded as UTF-8 back to back in a single buffer,
+     * with an offset array marking where each row starts. Serves as the keys of the identifier table.
+     */
+    private static final class PackedStringColumn implements CodeIdTable.Keys {
+
+        private final ByteBuffer data;
+        private final int[] offsets;
+        private final BitSet nulls;
+
+        private PackedStringColumn(ByteBuffer data, int[] offsets, BitSet nulls) {
+            this.data = data;
+            this.offsets = offsets;
+            this.nulls = nulls;
+        }
+
+        @Override
+        public boolean isNull(int row) {
+            return nulls.get(row);
+        }
+
+        String get(int row) {
+            if (nulls.get(row)) {
+                return null;
+            }
+            int start = offsets[row];
+            int length = offsets[row + 1] - start;
+            if (data.hasArray()) {
+                return new String(data.array(), start, length, StandardCharsets.UTF_8);
+            }
+            byte[] bytes = new byte[length];
+            data.get(start, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int hash(int row) {
+            int start = offsets[row];
+            int end = offsets[row + 1];
+            if (data.hasArray()) {
+                return CompactCodeStore.hash(data.array(), start, end - start);
+            }
+            int h = 1;
+            for (int i = start; i < end; i++) {
+                h = 31 * h + data.get(i);
+            }
+            return h ^ (h >>> 16);
+        }
+
+        @Override
+        public int hash(String value) {
+            return utf8Hash(value);
+        }
+
+        /**
+         * Compares the stored bytes of a row with the UTF-8 encoding of {@code value}, encoding as it goes.
+         */
+        @Override
+        public boolean valueEquals(int row, String value) {
+            if (nulls.get(row)) {
+                return false;
+            }
+            int position = offsets[row];
+            int end = offsets[row + 1];
+            for (int i = 0; i < value.length(); ) {
+                int codePoint = codePointAt(value, i);
+                i += Character.charCount(codePoint);
+                int length = utf8Length(codePoint);
+                if (end - position < length) {
+                    return false;
+                }
+                for (int k = 0; k < length; k++) {
+                    if (data.get(position++) != utf8Byte(codePoint, length, k)) {
+                        return false;
+                    }
+                }
+            }
+            return position == end;
+        }
+
+        @Override
+        public boolean valueEquals(int row, int otherRow) {
+            int start = offsets[row];
+            int length = offsets[row + 1] - start;
+            int otherStart = offsets[otherRow];
+            if (nulls.get(row) || nulls.get(otherRow) || length != offsets[otherRow + 1] - otherStart) {
+                return false;
+            }
+            if (data.hasArray()) {
+                return Arrays.equals(data.array(), start, start + length, data.array(), otherStart, otherStart + length);
+            }
+            return data.slice(start, length).equals(data.slice(otherStart, length));
+        }
+
+        long heapBytes() {
+            long bytes = CodeStore.align(16 + 4L * offsets.length) + CodeStore.align(16 + nulls.size() / 8);
+            return data.isDirect() ? bytes : bytes + CodeStore.align(16 + data.capacity());
+        }
+
+        long offHeapBytes() {
+            return data.isDirect() ? data.capacity() : 0;
+        }
+
+        private static final class Builder {
+
+            private byte[] data = new byte[4096];
+            private int[] offsets = new int[1024];
+            private final BitSet nulls = new BitSet();
+            private int length;
+            private int rows;
+
+            void add(String value) {
+                if (rows + 1 >= offsets.length) {
+                    offsets = Arrays.copyOf(offsets, offsets.length + (offsets.length >> 1));
+                }
+                offsets[rows] = length;
+                if (value == null) {
+                    nulls.set(rows);
+                } else {
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    ensureCapacity((long) length + bytes.length);
+                    System.arraycopy(bytes, 0, data, length, bytes.length);
+                    length += bytes.length;
+                }
+                rows++;
+            }
+
+            private void ensureCapacity(long required) {
+                if (required > Integer.MAX_VALUE - 8) {
+                    throw new IllegalStateException("Column exceeds the 2 GB limit of compact storage");
+                }
+                if (required > data.length) {
+                    long grown = Math.max(required, data.length + ((long) data.length >> 1));
+                    data = Arrays.copyOf(data, (int) Math.min(grown, Integer.MAX_VALUE - 8));
+                }
+            }
+
+            PackedStringColumn build(boolean offHeap) {
+                int[] trimmedOffsets = Arrays.copyOf(offsets, rows + 1);
+                trimmedOffsets[rows] = length;
+                ByteBuffer buffer;
+                if (offHeap) {
+                    buffer = ByteBuffer.allocateDirect(length).put(data, 0, length).flip();
+                } else {
+                    buffer = ByteBuffer.wrap(Arrays.copyOf(data, length));
+                }
+                data = null;
+                return new PackedStringColumn(buffer, trimmedOffsets, nulls);
+            }
+        }
+    }
+
+    /**
+     * A column with few distinct values, stored as one small id per row plus the distinct values.
+     * Ids are kept in a byte array while the column has at most 256 distinct values.
+     */
+    private static final class DictionaryColumn {
+
+        private final String[] values;
+        private final byte[] byteIds;
+        private final int[] intIds;
+
+        private DictionaryColumn(String[] values, byte[] byteIds, int[] intIds) {
+            this.values = values;
+            this.byteIds = byteIds;
+            this.intIds = intIds;
+        }
+
+        String get(int row) {
+            return values[byteIds != null ? byteIds[row] & 0xFF : intIds[row]];
+        }
+
+        long heapBytes() {
+            long bytes = CodeStore.align(16 + 4L * values.length);
+            for (String value : values) {
+                bytes += CodeStore.estimateStringBytes(value);
+            }
+            return bytes + (byteIds != null ? CodeStore.align(16 + byteIds.length) : CodeStore.align(16 + 4L * intIds.length));
+        }
+
+        private static final class Builder {
+
+            private final Map<String, Integer> ids = new HashMap<>();
+            private final List<String> values = new ArrayList<>();
+            private int[] rowIds = new int[1024];
+            private int rows;
+
+            void add(String value) {
+                Integer id = ids.get(value);
+                if (id == null) {
+                    id = values.size();
+                    ids.put(value, id);
+                    values.add(value);
+                }
+                if (rows == rowIds.length) {
+                    rowIds = Arrays.copyOf(rowIds, rowIds.length + (rowIds.length >> 1));
+                }
+                rowIds[rows++] = id;
+            }
+
+            DictionaryColumn build() {
+                String[] dictionary = values.toArray(new String[0]);
+                if (dictionary.length <= 256) {
+                    byte[] byteIds = new byte[rows];
+                    for (int i = 0; i < rows; i++) {
+                        byteIds[i] = (byte) rowIds[i];
+                    }
+                    return new DictionaryColumn(dictionary, byteIds, null);
+                }
+                return new DictionaryColumn(dictionary, null, Arrays.copyOf(rowIds, rows));
+            }
+        }
+    }
+}
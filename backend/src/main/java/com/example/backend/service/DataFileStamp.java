@@ -0,0 +1,34 @@
+package com.example.backend.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * Identity of one version of the data file on disk, used to detect changes cheaply
+ * without reading the file. Includes the file key so that an atomic rename of a new
+ * file over the old one is noticed even when size and modification time match.
+ *
+ * @param lastModified The last modification time.
+ * @param size The file size in bytes.
+ * @param fileKey The file system key (inode), or null if the platform has none.
+ */
+record DataFileStamp(FileTime lastModified, long size, Object fileKey) {
+
+    /**
+     * Reads the current stamp of a file.
+     *
+     * @param path The file to inspect.
+     * @return The stamp, or null if the file does not exist or cannot be read.
+     */
+    static DataFileStamp of(Path path) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return new DataFileStamp(attributes.lastModifiedTime(), attributes.size(), attributes.fileKey());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.backend.service;
+
+/**
+ * Where {@code base64:}-prefixed fields are decoded.
+ */
+public enum DecodeMode {
+    /** Send the encoded rows to base64-service. */
+    service,
+    /** Decode inside the backend, with the same rules as base64-service. */
+    local
+}
@@ -0,0 +1,131 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.Code;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Stores every row as its own {@link Code} object, as parsed.
+ */
+final class HeapCodeStore implements CodeStore {
+
+    private final List<Code> codes;
+    private final CodeIdTable codeTable;
+    private final List<String> codeIds;
+    private final long estimatedHeapBytes;
+
+    private HeapCodeStore(List<Code> codes) {
+        this.codes = codes;
+        this.codeTable = new CodeIdTable(new CodeKeys(codes), codes.size());
+        this.codeIds = codes.stream()
+                .map(Code::getCode)
+                .toList();
+        this.estimatedHeapBytes = estimate();
+    }
+
+    @Override
+    public int size() {
+        return codes.size();
+    }
+
+    @Override
+    public List<Code> asList() {
+        return codes;
+    }
+
+    @Override
+    public List<String> codeIds() {
+        return codeIds;
+    }
+
+    @Override
+    public int indexOf(String codeId) {
+        return codeTable.indexOf(codeId);
+    }
+
+    @Override
+    public int uniqueCodeCount() {
+        return codeTable.uniqueCount();
+    }
+
+    @Override
+    public long estimateHeapBytes() {
+        return estimatedHeapBytes;
+    }
+
+    @Override
+    public long offHeapBytes() {
+        return 0;
+    }
+
+    private long estimate() {
+        long rows = codes.size();
+        long bytes = CodeStore.align(16 + 4 * rows);
+        for (Code code : codes) {
+            bytes += 32
+                    + CodeStore.estimateStringBytes(code.getCode())
+                    + CodeStore.estimateStringBytes(code.getType())
+                    + CodeStore.estimateStringBytes(code.getName())
+                    + CodeStore.estimateStringBytes(code.getCategory());
+        }
+        bytes += codeTable.heapBytes();
+        bytes += CodeStore.align(16 + 4 * rows);
+        return bytes;
+    }
+
+    /**
+     * Identifiers as the rows' own strings, hashed with {@link String#hashCode()}.
+     */
+    private record CodeKeys(List<Code> codes) implements CodeIdTable.Keys {
+
+        @Override
+        public boolean isNull(int row) {
+            return codes.get(row).getCode() == null;
+        }
+
+        @Override
+        public int hash(int row) {
+            return hash(codes.get(row).getCode());
+        }
+
+        @Override
+        public int hash(String codeId) {
+            int h = codeId.hashCode();
+            return h ^ (h >>> 16);
+        }
+
+        @Override
+        public boolean valueEquals(int row, int otherRow) {
+            String codeId = codes.get(row).getCode();
+            return codeId != null && codeId.equals(codes.get(otherRow).getCode());
+        }
+
+        @Override
+        public boolean valueEquals(int row, String codeId) {
+            return codeId.equals(codes.get(row).getCode());
+        }
+    }
+
+    static final class Builder implements CodeStore.Builder {
+
+        private final ArrayList<Code> codes = new ArrayList<>();
+
+        @Override
+        public void add(String code, String type, String name, String category) {
+            codes.add(new Code(code, type, name, category));
+        }
+
+        @Override
+        public int size() {
+            return codes.size();
+        }
+
+        @Override
+        public CodeStore build() {
+            codes.trimToSize();
+            return new HeapCodeStore(Collections.unmodifiableList(codes));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.backend.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in one listing of one snapshot, exchanged with clients as an opaque URL-safe string.
+ * Besides the position it carries the sort key, identifier and rank of the last row served, so that
+ * a client holding a cursor from an older snapshot resumes after the same row in the new one,
+ * even if several rows share its sort key and identifier.
+ *
+ * @param view Which listing the cursor belongs to (see {@link CodeSnapshot}).
+ * @param version The snapshot version the cursor was issued for.
+ * @param position Index of the first row of the next page.
+ * @param lastKey Sort key of the last row served (null for file-order listings or null keys).
+ * @param lastCode Identifier of the last row served.
+ * @param lastRank Offset of the last row served within the run of rows sharing its sort key,
+ * or -1 for file-order listings.
+ */
+record PageCursor(int view, long version, int position, String lastKey, String lastCode, int lastRank) {
+
+    private static final byte FORMAT = 1;
+
+    /**
+     * @return The cursor in its opaque string form.
+     */
+    String encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT);
+            out.writeByte(view);
+            out.writeLong(version);
+            out.writeInt(position);
+            writeNullable(out, lastKey);
+            writeNullable(out, lastCode);
+            out.writeInt(lastRank);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot encode page cursor", e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * Parses a cursor previously produced by {@link #encode()}.
+     *
+     * @param cursor The opaque string.
+     * @return The decoded cursor.
+     * @throws IllegalArgumentException If the string is not a valid cursor.
+     */
+    static PageCursor decode(String cursor) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)))) {
+            byte format = in.readByte();
+            if (format != FORMAT) {
+                throw new IllegalArgumentException("Unsupported page cursor format");
+            }
+            int view = in.readByte();
+            long version = in.readLong();
+            int position = in.readInt();
+            String lastKey = readNullable(in);
+            String lastCode = readNullable(in);
+            int lastRank = in.readInt();
+            if (position < 0 || lastRank < -1) {
+                throw new IllegalArgumentException("Invalid page cursor position");
+            }
+            return new PageCursor(view, version, position, lastKey, lastCode, lastRank);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed page cursor", e);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length != length) {
+            throw new IllegalArgumentException("Truncated page cursor");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
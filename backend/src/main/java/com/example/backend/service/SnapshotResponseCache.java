@@ -0,0 +1,228 @@
+package com.example.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Cache of already serialized JSON responses for views derived from a data snapshot.
+ * Snapshot data only changes on reload, so each view is serialized once per snapshot and
+ * later requests copy the stored bytes to the response instead of running Jackson again.
+ * <p>
+ * The cache is bounded by the total size of the stored bodies ('app.response-cache.max-bytes').
+ * A single body may take at most a quarter of that. Serialization of a larger body is abandoned as soon as
+ * it passes the limit, and only a marker is cached for the view, telling callers to stream it instead
+ * (see {@link CachedResponse#oversized()}); a body that would be evicted right away is never built in memory.
+ * Entries are keyed by snapshot version; when a newer snapshot is first seen all older entries are dropped, and
+ * requests still holding an older snapshot are served without caching.
+ * <p>
+ * The cache holds futures: the first request for a view registers one and serializes outside of the cache's
+ * locks, and concurrent requests for the same view wait on it. Serializing inside a cache computation would
+ * hold a lock shared with unrelated keys for the whole serialization.
+ * Hit, miss and eviction counts are published as the 'cache.*' meters of cache 'responses', the stored size
+ * as 'codes.response.cache.size'.
+ */
+@Component
+public class SnapshotResponseCache {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotResponseCache.class);
+
+    private final ObjectMapper objectMapper;
+    private final AsyncCache<ViewKey, CachedResponse> cache;
+    private final long maxBytes;
+    private final long maxBodyBytes;
+    private volatile long currentVersion;
+
+    public SnapshotResponseCache(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                 @Value("${app.response-cache.max-bytes:67108864}") long maxBytes) {
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxBytes;
+        this.maxBodyBytes = maxBytes / 4;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((ViewKey key, CachedResponse value) -> value.weight())
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "responses");
+        Gauge.builder("codes.response.cache.size", this, SnapshotResponseCache::getSizeBytes)
+                .description("Total size of the cached response bodies")
+                .baseUnit(BaseUnits.BYTES)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the serialized form of a view, serializing it on the first request for this snapshot.
+     * Concurrent first requests for the same view wait for a single serialization. A view of a snapshot older
+     * than the newest one seen is built but not cached.
+     *
+     * @param snapshot The snapshot the view is derived from.
+     * @param view A key identifying the view within the snapshot (endpoint and parameters).
+     * @param loader Builds the response on a miss; may return null for "not found", which is not cached.
+     * @return The cached or freshly built response, or null if the loader returned null.
+     */
+    public CachedResponse get(CodeSnapshot snapshot, String view, Supplier<CachedResponse> loader) {
+        long version = snapshot.getVersion();
+        if (version > currentVersion) {
+            evictOlderVersions(version);
+        } else if (version < currentVersion) {
+            return loader.get();
+        }
+
+        ViewKey key = new ViewKey(version, view);
+        CompletableFuture<CachedResponse> created = new CompletableFuture<>();
+        CompletableFuture<CachedResponse> response = cache.get(key, (k, executor) -> created);
+        if (response == created) {
+            try {
+                // A null or failed result removes the entry again.
+                created.complete(loader.get());
+            } catch (RuntimeException e) {
+                created.completeExceptionally(e);
+                throw e;
+            }
+            if (version < currentVersion) {
+                // A newer snapshot was seen while serializing, after its eviction pass.
+                cache.synchronous().invalidate(key);
+            }
+        }
+        try {
+            return response.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Serializes a response body to JSON bytes, unless it is too large to cache.
+     *
+     * @param body The object to serialize.
+     * @param nextCursor The page cursor to return alongside the body, or null.
+     * @return The serialized response, or an {@link CachedResponse#oversized() oversized} marker
+     * if the body exceeds a quarter of the cache size.
+     */
+    public CachedResponse serialize(Object body, String nextCursor) {
+        BoundedBuffer buffer = new BoundedBuffer(maxBodyBytes);
+        try {
+            objectMapper.writeValue(buffer, body);
+        } catch (IOException | BoundedBuffer.LimitExceededException e) {
+            if (buffer.limitExceeded) {
+                log.debug("Response body exceeds {} bytes; it will be streamed instead of cached.", maxBodyBytes);
+                return new CachedResponse(null, nextCursor);
+            }
+            throw new IllegalStateException("Failed to serialize response body", e);
+        }
+        return new CachedResponse(buffer.toByteArray(), nextCursor);
+    }
+
+    /**
+     * @return Hit, miss and eviction counters since startup.
+     */
+    public CacheStats getStats() {
+        return cache.synchronous().stats();
+    }
+
+    /**
+     * @return Total size of the cached bodies, in bytes.
+     */
+    public long getSizeBytes() {
+        return cache.synchronous().policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0))
+                .orElse(0L);
+    }
+
+    /**
+     * @return The configured size bound, in bytes.
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    private synchronized void evictOlderVersions(long version) {
+        if (version <= currentVersion) {
+            return;
+        }
+        currentVersion = version;
+        cache.asMap().keySet().removeIf(key -> key.version() < version);
+        log.debug("Response cache switched to snapshot version {}.", version);
+    }
+
+    private record ViewKey(long version, String view) {
+    }
+
+    /**
+     * A serialized response body and, for paged listings, the cursor of the next page.
+     *
+     * @param body The JSON body, or null if the body is too large to cache.
+     * @param nextCursor The next page cursor, or null.
+     */
+    public record CachedResponse(byte[] body, String nextCursor) {
+
+        /**
+         * @return True if the body was too large to cache and has to be written to the client directly.
+         */
+        public boolean oversized() {
+            return body == null;
+        }
+
+        int weight() {
+            return (body != null ? body.length : 0) + (nextCursor != null ? nextCursor.length() : 0) + 64;
+        }
+    }
+
+    /**
+     * Output buffer that refuses to grow past a limit, so serialization of an oversized body stops early.
+     */
+    private static final class BoundedBuffer extends ByteArrayOutputStream {
+
+        private final long limit;
+        private boolean limitExceeded;
+
+        BoundedBuffer(long limit) {
+            super(8192);
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) {
+            reserve(1);
+            super.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            reserve(len);
+            super.write(b, off, len);
+        }
+
+        private void reserve(int length) {
+            if (count + (long) length > limit) {
+                limitExceeded = true;
+                throw new LimitExceededException();
+            }
+        }
+
+        /**
+         * Aborts serialization; Jackson may hand it back wrapped, so callers check {@link #limitExceeded}.
+         */
+        private static final class LimitExceededException extends RuntimeException {
+
+            LimitExceededException() {
+                super(null, null, false, false);
+            }
+        }
+    }
+}
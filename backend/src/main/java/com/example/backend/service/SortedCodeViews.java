@@ -0,0 +1,264 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.Code;
+import com.example.backend.dto.OrderByDirection;
+import com.example.backend.dto.OrderByField;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Function;
+
+/**
+ * Precomputed orderings of a loaded code list for every {@link OrderByField} and {@link OrderByDirection}.
+ * Each ordering is stored as an array of row indexes into the original list, so serving a sorted
+ * request is a read-only view instead of a fresh O(n log n) sort.
+ */
+final class SortedCodeViews {
+
+    private final List<Code> codes;
+    private final Map<OrderByField, Map<OrderByDirection, int[]>> orderings;
+    private final Map<OrderByField, Long> sortNanos;
+
+    private SortedCodeViews(List<Code> codes, Map<OrderByField, Map<OrderByDirection, int[]>> orderings,
+                            Map<OrderByField, Long> sortNanos) {
+        this.codes = codes;
+        this.orderings = orderings;
+        this.sortNanos = sortNanos;
+    }
+
+    /**
+     * Sorts the given list once for each field and direction.
+     * Ordering matches the previous per-request comparators: case-insensitive, nulls last
+     * for ascending (first for descending), and ties kept in data file order.
+     *
+     * @param codes The immutable list of loaded codes.
+     * @return The precomputed views.
+     */
+    static SortedCodeViews build(List<Code> codes) {
+        Map<OrderByField, Map<OrderByDirection, int[]>> orderings = new EnumMap<>(OrderByField.class);
+        Map<OrderByField, Long> sortNanos = new EnumMap<>(OrderByField.class);
+        for (OrderByField field : OrderByField.values()) {
+            long started = System.nanoTime();
+            SortEntry[] entries = sortEntries(codes, keyExtractor(field));
+            Map<OrderByDirection, int[]> byDirection = new EnumMap<>(OrderByDirection.class);
+            for (OrderByDirection direction : OrderByDirection.values()) {
+                Comparator<SortEntry> comparator = Comparator.comparing(SortEntry::key, keyComparator(direction));
+                SortEntry[] sorted = entries.clone();
+                Arrays.sort(sorted, comparator);
+                int[] order = new int[sorted.length];
+                for (int i = 0; i < sorted.length; i++) {
+                    order[i] = sorted[i].row();
+                }
+                byDirection.put(direction, order);
+            }
+            orderings.put(field, byDirection);
+            sortNanos.put(field, System.nanoTime() - started);
+        }
+        return new SortedCodeViews(codes, orderings, sortNanos);
+    }
+
+    /**
+     * @param field The field the orderings are sorted by.
+     * @return The time it took to build both orderings of that field, in nanoseconds.
+     */
+    long getSortNanos(OrderByField field) {
+        return sortNanos.get(field);
+    }
+
+    /**
+     * Returns an unmodifiable view of the codes in the requested order.
+     *
+     * @param orderBy The field to sort by.
+     * @param direction The sort direction.
+     * @return A read-only list backed by the precomputed ordering.
+     */
+    List<Code> get(OrderByField orderBy, OrderByDirection direction) {
+        return new OrderedView(codes, orderings.get(orderBy).get(direction));
+    }
+
+    /**
+     * Returns the offset of a row within the run of rows that share its sort key, in O(log n).
+     * Together with the key and the identifier it pins the row down when several rows tie on both.
+     *
+     * @param orderBy The field the listing is sorted by.
+     * @param direction The sort direction.
+     * @param position The row's position in the listing.
+     * @return The number of rows before it with the same sort key.
+     */
+    int rankInRun(OrderByField orderBy, OrderByDirection direction, int position) {
+        int[] order = orderings.get(orderBy).get(direction);
+        Function<Code, String> extractor = keyExtractor(orderBy);
+        String key = foldCase(extractor.apply(codes.get(order[position])));
+        return position - boundary(order, extractor, keyComparator(direction), key, false);
+    }
+
+    /**
+     * Finds where a listing continues after a row that was served from an older snapshot.
+     * Binary-searches the ordering for the run of rows sharing the last row's sort key. If the row at the
+     * same rank in that run has the same identifier, the listing resumes right after it, which is exact when
+     * the run did not change. Otherwise the run is scanned for rows with that identifier and the listing
+     * resumes after the one nearest to the old rank, or after the whole run if there is none.
+     * This is O(log n), plus the number of rows tied on the key when the run changed.
+     *
+     * @param orderBy The field the listing is sorted by.
+     * @param direction The sort direction.
+     * @param lastKey The unfolded sort key of the last row served.
+     * @param lastCode The identifier of the last row served.
+     * @param lastRank The rank of the last row served within its run, or -1 if unknown.
+     * @return The position of the first row of the next page.
+     */
+    int resumeAfter(OrderByField orderBy, OrderByDirection direction, String lastKey, String lastCode, int lastRank) {
+        int[] order = orderings.get(orderBy).get(direction);
+        Function<Code, String> extractor = keyExtractor(orderBy);
+        Comparator<String> comparator = keyComparator(direction);
+        String target = foldCase(lastKey);
+
+        int first = boundary(order, extractor, comparator, target, false);
+        int end = boundary(order, extractor, comparator, target, true);
+        int expected = first + Math.max(lastRank, 0);
+        if (lastRank >= 0 && expected < end && Objects.equals(lastCode, codes.get(order[expected]).getCode())) {
+            return expected + 1;
+        }
+        int resume = end;
+        int nearest = Integer.MAX_VALUE;
+        for (int i = first; i < end && i - expected < nearest; i++) {
+            if (Objects.equals(lastCode, codes.get(order[i]).getCode()) && Math.abs(i - expected) < nearest) {
+                nearest = Math.abs(i - expected);
+                resume = i + 1;
+            }
+        }
+        return resume;
+    }
+
+    /**
+     * Returns the sort key of a row for the given field, as stored in page cursors.
+     */
+    static String sortKey(Code code, OrderByField orderBy) {
+        return keyExtractor(orderBy).apply(code);
+    }
+
+    private int boundary(int[] order, Function<Code, String> extractor, Comparator<String> comparator, String target, boolean afterTies) {
+        int low = 0;
+        int high = order.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int result = comparator.compare(foldCase(extractor.apply(codes.get(order[middle]))), target);
+            if (result < 0 || (afterTies && result == 0)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static Comparator<String> keyComparator(OrderByDirection direction) {
+        Comparator<String> comparator = Comparator.nullsLast(SortedCodeViews::compareCodePoints);
+        return direction == OrderByDirection.desc ? comparator.reversed() : comparator;
+    }
+
+    /**
+     * @return The heap retained by the ordering arrays, in bytes.
+     */
+    long estimateHeapBytes() {
+        long bytes = 0;
+        for (Map<OrderByDirection, int[]> byDirection : orderings.values()) {
+            for (int[] order : byDirection.values()) {
+                bytes += CodeStore.align(16 + 4L * order.length);
+            }
+        }
+        return bytes;
+    }
+
+    private static Function<Code, String> keyExtractor(OrderByField field) {
+        return switch (field) {
+            case name -> Code::getName;
+            case category -> Code::getCategory;
+            case code -> Code::getCode;
+        };
+    }
+
+    private static SortEntry[] sortEntries(List<Code> codes, Function<Code, String> keyExtractor) {
+        SortEntry[] entries = new SortEntry[codes.size()];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = new SortEntry(foldCase(keyExtractor.apply(codes.get(i))), i);
+        }
+        return entries;
+    }
+
+    /**
+     * Case-folds a value so that {@link #compareCodePoints} ordering on the result equals
+     * {@link String#compareToIgnoreCase(String)} ordering on the input. Like that method, it folds
+     * supplementary characters as whole code points.
+     */
+    static String foldCase(String value) {
+        if (value == null) {
+            return null;
+        }
+        StringBuilder folded = null;
+        for (int i = 0; i < value.length(); ) {
+            int codePoint = value.codePointAt(i);
+            int f = Character.toLowerCase(Character.toUpperCase(codePoint));
+            if (f != codePoint && folded == null) {
+                folded = new StringBuilder(value.length()).append(value, 0, i);
+            }
+            if (folded != null) {
+                folded.appendCodePoint(f);
+            }
+            i += Character.charCount(codePoint);
+        }
+        return folded == null ? value : folded.toString();
+    }
+
+    /**
+     * Compares two strings by code point, which is the order {@link String#compareToIgnoreCase(String)} uses.
+     * {@link String#compareTo(String)} compares UTF-16 units instead, which puts supplementary characters
+     * before U+E000..U+FFFF.
+     */
+    static int compareCodePoints(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        for (int i = 0; i < length; i++) {
+            int c1 = a.charAt(i);
+            int c2 = b.charAt(i);
+            if (c1 != c2) {
+                if (c1 >= Character.MIN_SURROGATE && c2 >= Character.MIN_SURROGATE) {
+                    // Moves surrogates above the rest of the BMP.
+                    c1 += c1 > Character.MAX_SURROGATE ? -0x800 : 0x2000;
+                    c2 += c2 > Character.MAX_SURROGATE ? -0x800 : 0x2000;
+                }
+                return c1 - c2;
+            }
+        }
+        return a.length() - b.length();
+    }
+
+    private record SortEntry(String key, int row) {
+    }
+
+    private static final class OrderedView extends AbstractList<Code> implements RandomAccess {
+
+        private final List<Code> codes;
+        private final int[] order;
+
+        OrderedView(List<Code> codes, int[] order) {
+            this.codes = codes;
+            this.order = order;
+        }
+
+        @Override
+        public Code get(int index) {
+            return codes.get(order[index]);
+        }
+
+        @Override
+        public int size() {
+            return order.length;
+        }
+    }
+}
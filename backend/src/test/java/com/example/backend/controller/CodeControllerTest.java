@@ -0,0 +1,170 @@
+package com.example.backend.controller;
+
+import com.example.backend.dto.Code;
+import com.example.backend.dto.OrderByDirection;
+import com.example.backend.dto.OrderByField;
+import com.example.backend.service.Base64ServiceClient;
+import com.example.backend.service.CodeDataService;
+import com.example.backend.service.SnapshotResponseCache;
+import com.example.backend.service.TestCodeDataService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exercises the listing endpoints through MockMvc against data loaded from a temporary file: conditional GETs,
+ * entity tags across reloads, parameter validation ahead of the 304, NDJSON framing, and the streamed
+ * path for bodies too large for the response cache.
+ */
+class CodeControllerTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    private CodeDataService service;
+
+    @Test
+    void answersIfNoneMatchWithNotModified() throws Exception {
+        MockMvc mvc = mvc(rows(5), 1 << 20);
+
+        for (String uri : List.of("/public/codes", "/public/codes?limit=2", "/public/code/C1", "/private/codes?orderby=name")) {
+            MvcResult first = mvc.perform(get(uri)).andExpect(status().isOk()).andReturn();
+            String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+            assertThat(etag).as(uri).isNotNull();
+
+            mvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().bytes(new byte[0]));
+            mvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, "\"other\""))
+                    .andExpect(status().isOk())
+                    .andExpect(content().bytes(first.getResponse().getContentAsByteArray()));
+        }
+    }
+
+    @Test
+    void pagedEntityTagChangesWithSnapshotVersion() throws Exception {
+        MockMvc mvc = mvc(rows(5), 1 << 20);
+        String pagedBefore = etag(mvc, "/public/codes?limit=2");
+        String wholeBefore = etag(mvc, "/public/codes");
+
+        // Same content, new modification time: a new snapshot version of the same data.
+        Path file = directory.resolve("data.json");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(60)));
+        TestCodeDataService.reload(service);
+        assertThat(service.getSnapshot().getVersion()).isEqualTo(2);
+
+        // The page's cursor is bound to the version, so its tag changes; the unpaged body's does not.
+        assertThat(etag(mvc, "/public/codes?limit=2")).isNotEqualTo(pagedBefore);
+        assertThat(etag(mvc, "/public/codes")).isEqualTo(wholeBefore);
+        mvc.perform(get("/public/codes?limit=2").header(HttpHeaders.IF_NONE_MATCH, pagedBefore))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void rejectsInvalidParametersBeforeNotModified() throws Exception {
+        MockMvc mvc = mvc(rows(5), 1 << 20);
+        String paged = etag(mvc, "/public/codes?limit=2");
+
+        for (String uri : List.of("/public/codes?limit=0", "/public/codes?cursor=not-a-cursor",
+                "/private/codes?limit=-1", "/private/codes?cursor=AAAA")) {
+            mvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, paged)).andExpect(status().isBadRequest());
+            mvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, "*")).andExpect(status().isBadRequest());
+        }
+        mvc.perform(get("/public/code/missing").header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void streamsListingsAsNdjson() throws Exception {
+        MockMvc mvc = mvc(rows(5), 1 << 20);
+
+        MvcResult ids = mvc.perform(get("/public/codes?limit=3").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-ndjson;charset=UTF-8"))
+                .andExpect(header().exists(CodeController.NEXT_CURSOR_HEADER))
+                .andReturn();
+        assertThat(ids.getResponse().getContentAsString(StandardCharsets.UTF_8))
+                .isEqualTo("\"C0\"\n\"C1\"\n\"C2\"\n");
+
+        MvcResult codes = mvc.perform(get("/private/codes?orderby=code&orderbydirection=desc")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(CodeController.NEXT_CURSOR_HEADER))
+                .andReturn();
+        String body = codes.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertThat(body).endsWith("\n").doesNotContain("\n\n").doesNotContain("} {");
+        List<Code> parsed = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            parsed.add(MAPPER.readValue(line, Code.class));
+        }
+        assertThat(parsed).extracting(Code::getCode).containsExactly("C4", "C3", "C2", "C1", "C0");
+
+        mvc.perform(get("/public/codes?limit=0").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void streamsBodiesTooLargeForTheCache() throws Exception {
+        // A quarter of 4 KiB is far less than 200 rows of JSON.
+        MockMvc mvc = mvc(rows(200), 4096);
+
+        MvcResult result = mvc.perform(get("/private/codes?orderby=code"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn();
+        assertThat(result.getResponse().getContentType()).startsWith(MediaType.APPLICATION_JSON_VALUE);
+        assertThat(result.getResponse().getContentAsByteArray()).isEqualTo(MAPPER.writeValueAsBytes(
+                service.getSortedCodes(OrderByField.code, OrderByDirection.asc)));
+
+        // Small views are still served from the cache.
+        mvc.perform(get("/public/code/C7")).andExpect(status().isOk())
+                .andExpect(content().json("{\"code\":\"C7\",\"type\":\"t7\",\"name\":\"name 7\",\"category\":null}"));
+    }
+
+    private MockMvc mvc(List<List<String>> rows, long cacheBytes) throws IOException {
+        List<List<String>> file = new ArrayList<>();
+        file.add(List.of("code", "type", "name"));
+        file.addAll(rows);
+        Path dataFile = directory.resolve("data.json");
+        Files.write(dataFile, MAPPER.writeValueAsBytes(file));
+        service = TestCodeDataService.load(TestCodeDataService.create(dataFile, mock(Base64ServiceClient.class)));
+        SnapshotResponseCache cache = new SnapshotResponseCache(MAPPER, new SimpleMeterRegistry(), cacheBytes);
+        return MockMvcBuilders.standaloneSetup(new CodeController(service, cache, MAPPER)).build();
+    }
+
+    private static String etag(MockMvc mvc, String uri) throws Exception {
+        return mvc.perform(get(uri)).andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private static List<List<String>> rows(int count) {
+        List<List<String>> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(List.of("C" + i, "t" + i, "name " + i));
+        }
+        return rows;
+    }
+}
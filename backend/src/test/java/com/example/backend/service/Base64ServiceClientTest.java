@@ -0,0 +1,162 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.Code;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the client against a stub base64-service on a local port: the fallbacks from Smile to JSON and from the
+ * values endpoint to whole codes, failures that open the circuit, and the client credentials token on each call.
+ */
+class Base64ServiceClientTest {
+
+    private static final String SMILE = Base64ServiceClient.SMILE.toString();
+
+    private final List<Request> requests = new CopyOnWriteArrayList<>();
+    private final Map<String, Responder> responders = new ConcurrentHashMap<>();
+    private HttpServer server;
+    private String baseUrl;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {415, 406})
+    void fallsBackToJsonWhenSmileIsRefused(int status) {
+        responders.put("/decode", request -> request.contentType().equals(SMILE)
+                ? new Response(status, "")
+                : new Response(200, "[{\"code\":\"C1\",\"type\":\"t\",\"name\":\"hi\",\"category\":\"c\"}]"));
+        Base64ServiceClient client = client(true, 5, null);
+        List<Code> codes = List.of(new Code("C1", "t", "base64:aGk=", "c"));
+
+        assertThat(client.decode(codes)).containsExactly(new Code("C1", "t", "hi", "c"));
+        assertThat(client.decode(codes)).containsExactly(new Code("C1", "t", "hi", "c"));
+
+        // The refused Smile request is retried as JSON once; later calls send JSON straight away.
+        assertThat(requests).extracting(Request::contentType)
+                .containsExactly(SMILE, "application/json", "application/json");
+        assertThat(client.getCircuitState()).isEqualTo("CLOSED");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {404, 405})
+    void fallsBackToWholeCodesWithoutValuesEndpoint(int status) {
+        responders.put("/decode/values", request -> new Response(status, ""));
+        responders.put("/decode", request -> new Response(200, "[{\"name\":\"hi\"},{\"name\":\"yo\"}]"));
+        Base64ServiceClient client = client(false, 1, null);
+
+        assertThat(client.decodeValues(List.of("base64:aGk=", "base64:eW8="))).containsExactly("hi", "yo");
+        assertThat(client.decodeValues(List.of("base64:aGk=", "base64:eW8="))).containsExactly("hi", "yo");
+
+        assertThat(requests).extracting(Request::path).containsExactly("/decode/values", "/decode", "/decode");
+        // The missing endpoint is not a failure, even with a threshold of one.
+        assertThat(client.getCircuitState()).isEqualTo("CLOSED");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {401, 403, 500})
+    void countsRejectedCallsAsFailures(int status) {
+        responders.put("/decode/values", request -> new Response(status, ""));
+        Base64ServiceClient client = client(false, 2, null);
+
+        assertThat(client.decodeValues(List.of("base64:aGk="))).isEmpty();
+        assertThat(client.getCircuitState()).isEqualTo("CLOSED");
+        assertThat(client.decodeValues(List.of("base64:aGk="))).isEmpty();
+        assertThat(client.getCircuitState()).isEqualTo("OPEN");
+        // The open circuit rejects the call without sending it, and the values endpoint is kept.
+        assertThat(client.decodeValues(List.of("base64:aGk="))).isEmpty();
+        assertThat(requests).extracting(Request::path).containsExactly("/decode/values", "/decode/values");
+    }
+
+    @Test
+    void sendsClientCredentialsToken() {
+        responders.put("/token", request -> new Response(200,
+                "{\"access_token\":\"service-token\",\"token_type\":\"Bearer\",\"expires_in\":300}"));
+        responders.put("/decode/values", request -> new Response(200, "[\"hi\"]"));
+        ClientRegistration registration = ClientRegistration.withRegistrationId("base64-service")
+                .clientId("devdemo-backend")
+                .clientSecret("secret")
+                .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                .tokenUri(baseUrl + "/token")
+                .build();
+        Base64ServiceClient client = client(false, 5, new InMemoryClientRegistrationRepository(registration));
+
+        assertThat(client.decodeValues(List.of("base64:aGk="))).containsExactly("hi");
+        assertThat(client.decodeValues(List.of("base64:aGk="))).containsExactly("hi");
+
+        // One token request, reused for both calls.
+        assertThat(requests).extracting(Request::path).containsExactly("/token", "/decode/values", "/decode/values");
+        assertThat(requests.get(0).body()).contains("grant_type=client_credentials");
+        assertThat(requests.subList(1, 3)).extracting(Request::authorization)
+                .containsOnly("Bearer service-token");
+    }
+
+    private Base64ServiceClient client(boolean smile, int failureThreshold, ClientRegistrationRepository registrations) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        if (registrations != null) {
+            beans.addBean("clientRegistrationRepository", registrations);
+        }
+        return new Base64ServiceClient(new RestTemplateBuilder(), new SimpleMeterRegistry(), baseUrl, false, smile,
+                2_000, 5_000, failureThreshold, 60_000, "base64-service",
+                beans.getBeanProvider(ClientRegistrationRepository.class));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String contentType = String.valueOf(exchange.getRequestHeaders().getFirst("Content-Type")).split(";")[0];
+        Request request = new Request(exchange.getRequestURI().getPath(), contentType,
+                exchange.getRequestHeaders().getFirst("Authorization"),
+                new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        requests.add(request);
+        Responder responder = responders.get(request.path());
+        Response response = responder != null ? responder.respond(request) : new Response(404, "");
+        byte[] body = response.body().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(response.status(), body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private record Request(String path, String contentType, String authorization, String body) {
+    }
+
+    private record Response(int status, String body) {
+    }
+
+    private interface Responder {
+        Response respond(Request request);
+    }
+}
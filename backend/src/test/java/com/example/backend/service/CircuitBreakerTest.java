@@ -0,0 +1,71 @@
+package com.example.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Walks the circuit breaker through its states: it opens after the threshold of consecutive failures, rejects
+ * calls while open, lets one trial call through once the open period has passed, and closes or opens again on
+ * the trial's outcome.
+ */
+class CircuitBreakerTest {
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(3, 60_000);
+
+        for (int i = 0; i < 2; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            assertThat(breaker.recordFailure()).isFalse();
+        }
+        // A success in between starts the count again.
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.recordSuccess();
+        for (int i = 0; i < 2; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            assertThat(breaker.recordFailure()).isFalse();
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.recordFailure()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void trialCallClosesTheCircuit() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker(50);
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        Thread.sleep(100);
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        // Only one trial call at a time.
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        breaker.recordSuccess();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void failedTrialCallOpensTheCircuitAgain() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker(50);
+
+        Thread.sleep(100);
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.recordFailure()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        // The full open period starts again.
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    private static CircuitBreaker openBreaker(long openDurationMs) {
+        CircuitBreaker breaker = new CircuitBreaker(1, openDurationMs);
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.recordFailure()).isTrue();
+        return breaker;
+    }
+}
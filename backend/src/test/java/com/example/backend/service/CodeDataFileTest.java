@@ -0,0 +1,147 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.Code;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Loads temporary data files into {@link CodeDataService}, in both storage modes, and checks which rows
+ * end up in the snapshot: rows that are not arrays, have fewer than three values or contain nested values are
+ * skipped, values after the third are ignored, and duplicate identifiers are kept in file order. Reload
+ * polls publish a changed file as a new snapshot and keep retrying one that fails to load.
+ */
+class CodeDataFileTest {
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @EnumSource(CodeStorageMode.class)
+    void skipsMalformedRowsAndIgnoresExtraValues(CodeStorageMode mode) throws IOException {
+        CodeDataService service = load(mode, """
+                [["code", "type", "name"],
+                 ["A", "t1", "alpha"],
+                 "not a row",
+                 null,
+                 {"code": "X"},
+                 ["B", "t2"],
+                 [],
+                 ["C", ["nested"], "gamma"],
+                 ["D", "t4", {"name": "delta"}],
+                 ["E", "t5", "epsilon", "extra", 5, null],
+                 ["G", "t7", "eta", {"extra": "nested"}],
+                 ["F", 6, true]]
+                """);
+
+        assertThat(service.getAllCodes()).extracting(Code::getCode, Code::getType, Code::getName).containsExactly(
+                tuple("A", "t1", "alpha"),
+                tuple("E", "t5", "epsilon"),
+                tuple("F", "6", "true"));
+        assertThat(service.getAllCodes()).extracting(Code::getCategory).containsOnlyNulls();
+        assertThat(service.getCodeById("C")).isEmpty();
+        assertThat(service.getCodeById("G")).isEmpty();
+        assertThat(service.getSnapshot().getContentHash()).isNotEqualTo(CodeSnapshot.EMPTY_CONTENT_HASH);
+    }
+
+    @ParameterizedTest
+    @EnumSource(CodeStorageMode.class)
+    void keepsDuplicateRowsAndLooksUpTheFirst(CodeStorageMode mode) throws IOException {
+        CodeDataService service = load(mode, """
+                [["code", "type", "name"],
+                 ["A", "t1", "first"],
+                 ["B", "t2", "beta"],
+                 ["A", "t3", "second"]]
+                """);
+
+        assertThat(service.getAllCodes()).extracting(Code::getName).containsExactly("first", "beta", "second");
+        assertThat(service.getSnapshot().getUniqueCodeCount()).isEqualTo(2);
+        assertThat(service.getCodeById("A")).map(Code::getName).hasValue("first");
+    }
+
+    @ParameterizedTest
+    @EnumSource(CodeStorageMode.class)
+    void loadsHeaderOnlyAndMalformedFilesAsEmpty(CodeStorageMode mode) throws IOException {
+        assertThat(load(mode, "[[\"code\", \"type\", \"name\"]]").getAllCodes()).isEmpty();
+        assertThat(load(mode, "").getAllCodes()).isEmpty();
+        assertThat(load(mode, "{\"code\": \"A\"}").getAllCodes()).isEmpty();
+        assertThat(load(mode, "[[\"code\", \"type\", \"name\"], [\"A\", \"t1\", \"alpha\"]").getAllCodes()).isEmpty();
+    }
+
+    @ParameterizedTest
+    @EnumSource(CodeStorageMode.class)
+    void reloadSwapsTheSnapshotWhenTheFileChanges(CodeStorageMode mode) throws IOException {
+        CodeDataService service = load(mode, "[[\"code\", \"type\", \"name\"], [\"A\", \"t1\", \"alpha\"]]");
+        CodeSnapshot first = service.getSnapshot();
+
+        // Unchanged file: no new snapshot.
+        TestCodeDataService.reload(service);
+        assertThat(service.getSnapshot()).isSameAs(first);
+
+        write("[[\"code\", \"type\", \"name\"], [\"A\", \"t1\", \"alpha\"], [\"B\", \"t2\", \"beta\"]]", 1);
+        TestCodeDataService.reload(service);
+        CodeSnapshot second = service.getSnapshot();
+        assertThat(second.getVersion()).isEqualTo(first.getVersion() + 1);
+        assertThat(second.getContentHash()).isNotEqualTo(first.getContentHash());
+        assertThat(service.getCodeById("B")).map(Code::getName).hasValue("beta");
+        // Readers holding the previous snapshot keep seeing its rows.
+        assertThat(first.getCodes()).extracting(Code::getCode).containsExactly("A");
+
+        TestCodeDataService.reload(service);
+        assertThat(service.getSnapshot()).isSameAs(second);
+    }
+
+    @ParameterizedTest
+    @EnumSource(CodeStorageMode.class)
+    void keepsTheSnapshotAndRetriesWhenAReloadFails(CodeStorageMode mode) throws IOException {
+        CodeDataService service = load(mode, "[[\"code\", \"type\", \"name\"], [\"A\", \"t1\", \"alpha\"]]");
+        CodeSnapshot first = service.getSnapshot();
+
+        // A file caught half-written is not published, and its stamp is not remembered, so every poll retries it.
+        write("[[\"code\", \"type\", \"name\"], [\"B\", \"t2\"", 1);
+        TestCodeDataService.reload(service);
+        assertThat(service.getSnapshot()).isSameAs(first);
+        TestCodeDataService.reload(service);
+        assertThat(service.getSnapshot()).isSameAs(first);
+        MeterRegistry meterRegistry = (MeterRegistry) ReflectionTestUtils.getField(service, "meterRegistry");
+        assertThat(meterRegistry.get("codes.load").tags("trigger", "reload", "outcome", "failure").timer().count())
+                .isEqualTo(2);
+
+        write("[[\"code\", \"type\", \"name\"], [\"B\", \"t2\", \"beta\"]]", 1);
+        TestCodeDataService.reload(service);
+        assertThat(service.getSnapshot().getVersion()).isEqualTo(first.getVersion() + 1);
+        assertThat(service.getAllCodes()).extracting(Code::getCode).containsExactly("B");
+    }
+
+    private CodeDataService load(CodeStorageMode mode, String content) throws IOException {
+        Path file = write(content, 0);
+        CodeDataService service = TestCodeDataService.create(file, mock(Base64ServiceClient.class));
+        ReflectionTestUtils.setField(service, "storageMode", mode);
+        return TestCodeDataService.load(service);
+    }
+
+    /**
+     * Writes the data file with a modification time the given number of minutes ahead, so a rewrite is seen
+     * as a change even within the file system's timestamp resolution.
+     */
+    private Path write(String content, int minutesAhead) throws IOException {
+        Path file = directory.resolve("data.json");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plus(minutesAhead, ChronoUnit.MINUTES)));
+        return file;
+    }
+}
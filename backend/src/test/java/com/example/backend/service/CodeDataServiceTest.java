@@ -0,0 +1,177 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.Code;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs {@link CodeDataService} on a temporary data file with a stubbed {@link Base64ServiceClient}: concurrent
+ * callers share one decode, a successful decode is reused until the next snapshot, and failed decodes back off
+ * exponentially per snapshot.
+ */
+class CodeDataServiceTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    private final Base64ServiceClient client = mock(Base64ServiceClient.class);
+
+    @Test
+    void concurrentCallersShareOneDecode() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(client.decodeValues(anyList())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return decode(invocation.getArgument(0));
+        });
+        CodeDataService service = load(encodedRows(4));
+        CodeSnapshot snapshot = service.getSnapshot();
+
+        List<Future<List<Code>>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> service.getDecodedCodes(snapshot)));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (service.getCoalescedDecodeCallers() < 7 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            for (Future<List<Code>> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS)).extracting(Code::getName)
+                        .containsExactly("name 0", "name 1", "name 2", "name 3");
+            }
+        }
+
+        verify(client, times(1)).decodeValues(anyList());
+        assertThat(service.getDecodeRuns()).isEqualTo(1);
+        assertThat(service.getCoalescedDecodeCallers()).isEqualTo(7);
+    }
+
+    @Test
+    void memoizesDecodedCodesPerSnapshot() throws Exception {
+        when(client.decodeValues(anyList())).thenAnswer(invocation -> decode(invocation.getArgument(0)));
+        CodeDataService service = load(encodedRows(3));
+
+        List<Code> first = service.getDecodedCodes();
+        assertThat(service.getDecodedCodes()).isSameAs(first);
+        assertThat(service.getSnapshot().isDecodedReady()).isTrue();
+        verify(client, times(1)).decodeValues(anyList());
+
+        // A reload publishes a new snapshot, which is decoded once more.
+        touch();
+        TestCodeDataService.reload(service);
+        assertThat(service.getDecodedCodes()).isNotSameAs(first).containsExactlyElementsOf(first);
+        service.getDecodedCodes();
+        verify(client, times(2)).decodeValues(anyList());
+    }
+
+    @Test
+    void backoffGrowsUntilCappedAndResetsForANewSnapshot() throws Exception {
+        when(client.decodeValues(anyList()))
+                .thenReturn(List.of())
+                .thenThrow(new IllegalStateException("unexpected"))
+                .thenReturn(List.of());
+        CodeDataService service = TestCodeDataService.create(dataFile(encodedRows(2)), client);
+        ReflectionTestUtils.setField(service, "decodeInitialBackoffMs", 10L);
+        ReflectionTestUtils.setField(service, "decodeMaxBackoffMs", 30L);
+        TestCodeDataService.load(service);
+        List<Code> original = service.getSnapshot().getCodes();
+
+        List<Long> backoffs = new ArrayList<>();
+        for (int attempt = 0; attempt < 4; attempt++) {
+            // Failed decodes are not memoized: callers get the original rows.
+            assertThat(service.getDecodedCodes()).isSameAs(original);
+            backoffs.add(backoffMs(service));
+            Thread.sleep(backoffs.getLast() + 20);
+        }
+        assertThat(backoffs).containsExactly(10L, 20L, 30L, 30L);
+        verify(client, times(4)).decodeValues(anyList());
+
+        touch();
+        TestCodeDataService.reload(service);
+        service.getDecodedCodes();
+        assertThat(backoffMs(service)).isEqualTo(10L);
+    }
+
+    @Test
+    void doesNotCallTheServiceDuringBackoff() throws Exception {
+        when(client.decodeValues(anyList())).thenReturn(List.of());
+        CodeDataService service = load(encodedRows(2));
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(service.getDecodedCodes()).isSameAs(service.getSnapshot().getCodes());
+        }
+
+        verify(client, times(1)).decodeValues(anyList());
+        assertThat(backoffMs(service)).isEqualTo(1000L);
+    }
+
+    private CodeDataService load(List<List<String>> rows) throws IOException {
+        return TestCodeDataService.load(TestCodeDataService.create(dataFile(rows), client));
+    }
+
+    private Path dataFile(List<List<String>> rows) throws IOException {
+        List<List<String>> content = new ArrayList<>();
+        content.add(List.of("code", "type", "name"));
+        content.addAll(rows);
+        Path file = directory.resolve("data.json");
+        Files.write(file, MAPPER.writeValueAsBytes(content));
+        return file;
+    }
+
+    /**
+     * Gives the data file a new modification time, so the next poll reloads it as a new snapshot.
+     */
+    private void touch() throws IOException {
+        Path file = directory.resolve("data.json");
+        Files.setLastModifiedTime(file, FileTime.from(Files.getLastModifiedTime(file).toInstant().plusSeconds(60)));
+    }
+
+    private static long backoffMs(CodeDataService service) {
+        Object failure = ReflectionTestUtils.getField(service, "decodeFailure");
+        assertThat(failure).isNotNull();
+        return ReflectionTestUtils.invokeMethod(failure, "backoffMs");
+    }
+
+    private static List<List<String>> encodedRows(int count) {
+        List<List<String>> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(List.of("C" + i, "type", "base64:" + Base64.getEncoder()
+                    .encodeToString(("name " + i).getBytes(StandardCharsets.UTF_8))));
+        }
+        return rows;
+    }
+
+    private static List<String> decode(List<String> values) {
+        List<String> decoded = new ArrayList<>();
+        for (String value : values) {
+            decoded.add(new String(Base64.getDecoder().decode(value.substring("base64:".length())), StandardCharsets.UTF_8));
+        }
+        return decoded;
+    }
+}
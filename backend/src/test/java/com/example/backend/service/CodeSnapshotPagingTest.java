@@ -0,0 +1,103 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.Code;
+import com.example.backend.dto.OrderByDirection;
+import com.example.backend.dto.OrderByField;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pages through listings of one snapshot and continues with cursors on a newer snapshot of the same data,
+ * which must serve every row exactly once. The data has null and repeated identifiers and many ties on the
+ * sort keys, so resuming on the sort key and identifier alone is not enough.
+ */
+class CodeSnapshotPagingTest {
+
+    private static final String[] CODES = {"A1", "a1", "B2", "C3", "D4", "E5", null};
+    private static final String[] NAMES = {"alpha", "Alpha", "beta", "BETA", "gamma", "", null};
+    private static final String[] CATEGORIES = {"x", "X", "y", null};
+
+    @ParameterizedTest
+    @EnumSource(CodeStorageMode.class)
+    void sortedPagesContinueAcrossSnapshots(CodeStorageMode mode) {
+        List<Code> rows = randomRows(new SplittableRandom(6), 2_000);
+        CodeSnapshot first = snapshot(1, mode, rows);
+        CodeSnapshot second = snapshot(2, mode, rows);
+        SplittableRandom random = new SplittableRandom(7);
+
+        for (OrderByField field : OrderByField.values()) {
+            for (OrderByDirection direction : OrderByDirection.values()) {
+                for (int run = 0; run < 20; run++) {
+                    int limit = 1 + random.nextInt(50);
+                    int switchAfter = random.nextInt(2_000 / limit + 1);
+                    List<Code> served = new ArrayList<>();
+                    String cursor = null;
+                    int pages = 0;
+                    do {
+                        CodeSnapshot current = pages++ < switchAfter ? first : second;
+                        CodePage<Code> page = current.pageSorted(field, direction, cursor, limit);
+                        served.addAll(page.items());
+                        cursor = page.nextCursor();
+                    } while (cursor != null);
+
+                    assertThat(served)
+                            .as("%s %s, limit %d, switched after %d pages", field, direction, limit, switchAfter)
+                            .containsExactlyElementsOf(second.getSorted(field, direction));
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(CodeStorageMode.class)
+    void codeIdPagesContinueAcrossSnapshots(CodeStorageMode mode) {
+        List<Code> rows = randomRows(new SplittableRandom(8), 2_000);
+        CodeSnapshot first = snapshot(1, mode, rows);
+        CodeSnapshot second = snapshot(2, mode, rows);
+        SplittableRandom random = new SplittableRandom(9);
+
+        for (int run = 0; run < 50; run++) {
+            int limit = 1 + random.nextInt(50);
+            int switchAfter = random.nextInt(2_000 / limit + 1);
+            List<String> served = new ArrayList<>();
+            String cursor = null;
+            int pages = 0;
+            do {
+                CodeSnapshot current = pages++ < switchAfter ? first : second;
+                CodePage<String> page = current.pageCodeIds(cursor, limit);
+                served.addAll(page.items());
+                cursor = page.nextCursor();
+            } while (cursor != null);
+
+            assertThat(served)
+                    .as("limit %d, switched after %d pages", limit, switchAfter)
+                    .containsExactlyElementsOf(second.getCodeIds());
+        }
+    }
+
+    static List<Code> randomRows(SplittableRandom random, int count) {
+        List<Code> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Code(pick(random, CODES), "type" + random.nextInt(3), pick(random, NAMES), pick(random, CATEGORIES)));
+        }
+        return rows;
+    }
+
+    static CodeSnapshot snapshot(long version, CodeStorageMode mode, List<Code> rows) {
+        CodeStore.Builder builder = CodeStore.builder(mode, false);
+        for (Code row : rows) {
+            builder.add(row.getCode(), row.getType(), row.getName(), row.getCategory());
+        }
+        return CodeSnapshot.build(version, mode, builder.build(), "test");
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.Code;
+import com.example.backend.dto.OrderByDirection;
+import com.example.backend.dto.OrderByField;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the precomputed orderings, whole and page by page, against the per-request sort they replaced:
+ * a stable sort by {@link String#compareToIgnoreCase(String)} with nulls last, reversed for descending.
+ * Keys mix cases and scripts whose case mappings are not one-to-one, and every row carries its file position
+ * in {@code type}, so ties out of file order show up as a difference.
+ */
+class CodeSnapshotSortingTest {
+
+    private static final int[] CHARACTERS = ("aAbBzZ09 _-éÉßÿŸıIİiσΣςǅǄǆµΜＡａ" + "𐐀𐐨")
+            .codePoints().toArray();
+
+    @ParameterizedTest
+    @EnumSource(CodeStorageMode.class)
+    void sortedViewsMatchBaselineSort(CodeStorageMode mode) {
+        List<Code> rows = randomRows(new SplittableRandom(20), 5_000);
+        CodeSnapshot snapshot = CodeSnapshotPagingTest.snapshot(1, mode, rows);
+
+        for (OrderByField field : OrderByField.values()) {
+            for (OrderByDirection direction : OrderByDirection.values()) {
+                assertThat(snapshot.getSorted(field, direction))
+                        .as("%s %s", field, direction)
+                        .containsExactlyElementsOf(baselineSort(rows, field, direction));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(CodeStorageMode.class)
+    void sortedPagesMatchBaselineSort(CodeStorageMode mode) {
+        List<Code> rows = randomRows(new SplittableRandom(21), 2_000);
+        CodeSnapshot snapshot = CodeSnapshotPagingTest.snapshot(1, mode, rows);
+        SplittableRandom random = new SplittableRandom(22);
+
+        for (OrderByField field : OrderByField.values()) {
+            for (OrderByDirection direction : OrderByDirection.values()) {
+                List<Code> expected = baselineSort(rows, field, direction);
+                for (int run = 0; run < 10; run++) {
+                    int limit = 1 + random.nextInt(100);
+                    List<Code> served = new ArrayList<>();
+                    String cursor = null;
+                    do {
+                        CodePage<Code> page = snapshot.pageSorted(field, direction, cursor, limit);
+                        assertThat(page.items()).hasSizeLessThanOrEqualTo(limit);
+                        served.addAll(page.items());
+                        cursor = page.nextCursor();
+                    } while (cursor != null);
+
+                    assertThat(served)
+                            .as("%s %s, limit %d", field, direction, limit)
+                            .containsExactlyElementsOf(expected);
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(CodeStorageMode.class)
+    void codeIdPagesFollowFileOrder(CodeStorageMode mode) {
+        List<Code> rows = randomRows(new SplittableRandom(23), 2_000);
+        CodeSnapshot snapshot = CodeSnapshotPagingTest.snapshot(1, mode, rows);
+        List<String> expected = rows.stream().map(Code::getCode).toList();
+
+        for (int limit : new int[]{1, 7, 100, 1_999, 2_000, 5_000}) {
+            List<String> served = new ArrayList<>();
+            String cursor = null;
+            do {
+                CodePage<String> page = snapshot.pageCodeIds(cursor, limit);
+                served.addAll(page.items());
+                cursor = page.nextCursor();
+            } while (cursor != null);
+
+            assertThat(served).as("limit %d", limit).containsExactlyElementsOf(expected);
+        }
+    }
+
+    /**
+     * The sort of the original {@code CodeDataService.getSortedCodes}.
+     */
+    private static List<Code> baselineSort(List<Code> rows, OrderByField field, OrderByDirection direction) {
+        Function<Code, String> extractor = switch (field) {
+            case name -> Code::getName;
+            case category -> Code::getCategory;
+            case code -> Code::getCode;
+        };
+        Comparator<Code> comparator = Comparator.comparing(extractor, Comparator.nullsLast(String::compareToIgnoreCase));
+        if (direction == OrderByDirection.desc) {
+            comparator = comparator.reversed();
+        }
+        return rows.stream().sorted(comparator).toList();
+    }
+
+    private static List<Code> randomRows(SplittableRandom random, int count) {
+        List<Code> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Code(randomKey(random), "row" + i, randomKey(random), randomKey(random)));
+        }
+        return rows;
+    }
+
+    private static String randomKey(SplittableRandom random) {
+        if (random.nextInt(10) == 0) {
+            return null;
+        }
+        // Short keys over a small alphabet, so many rows tie or differ only in case.
+        StringBuilder key = new StringBuilder();
+        for (int length = random.nextInt(4); length > 0; length--) {
+            key.appendCodePoint(CHARACTERS[random.nextInt(CHARACTERS.length)]);
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.Code;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the compact store against the heap store built from the same rows: the rows and identifiers it returns,
+ * and every lookup by identifier. Identifiers include repeats, nulls, the empty string and multi-byte UTF-8.
+ */
+class CompactCodeStoreTest {
+
+    private static final int[] CHARACTERS = "aAbB09-_éßŸΣσ€中😀".codePoints().toArray();
+
+    @ParameterizedTest
+    @CsvSource({"false, 3", "false, 1000", "true, 3", "true, 1000"})
+    void rowsMatchHeapStore(boolean offHeap, int distinctTypes) {
+        List<Code> rows = randomRows(new SplittableRandom(30), 5_000, distinctTypes);
+        CodeStore heap = build(CodeStore.builder(CodeStorageMode.heap, false), rows);
+        CodeStore compact = build(CodeStore.builder(CodeStorageMode.compact, offHeap), rows);
+
+        assertThat(compact.size()).isEqualTo(rows.size());
+        assertThat(compact.asList()).containsExactlyElementsOf(heap.asList());
+        assertThat(compact.codeIds()).containsExactlyElementsOf(heap.codeIds());
+        assertThat(compact.uniqueCodeCount()).isEqualTo(heap.uniqueCodeCount());
+        assertThat(compact.offHeapBytes() > 0).isEqualTo(offHeap);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void lookupsMatchHeapStore(boolean offHeap) {
+        SplittableRandom random = new SplittableRandom(31);
+        List<Code> rows = randomRows(random, 5_000, 3);
+        CodeStore heap = build(CodeStore.builder(CodeStorageMode.heap, false), rows);
+        CodeStore compact = build(CodeStore.builder(CodeStorageMode.compact, offHeap), rows);
+
+        List<String> probes = new ArrayList<>();
+        for (Code row : rows) {
+            String code = row.getCode();
+            probes.add(code);
+            if (code != null && !code.isEmpty()) {
+                // Near misses: a prefix, an extension and a different case.
+                probes.add(code.substring(0, code.offsetByCodePoints(0, code.codePointCount(0, code.length()) - 1)));
+                probes.add(code + "a");
+                probes.add(code.toUpperCase());
+            }
+        }
+        for (int i = 0; i < 1_000; i++) {
+            probes.add(randomCode(random));
+        }
+
+        for (String probe : probes) {
+            assertThat(compact.indexOf(probe)).as("indexOf(%s)", probe).isEqualTo(heap.indexOf(probe));
+            assertThat(compact.findByCode(probe)).as("findByCode(%s)", probe).isEqualTo(heap.findByCode(probe));
+        }
+    }
+
+    private static CodeStore build(CodeStore.Builder builder, List<Code> rows) {
+        for (Code row : rows) {
+            builder.add(row.getCode(), row.getType(), row.getName(), row.getCategory());
+        }
+        return builder.build();
+    }
+
+    private static List<Code> randomRows(SplittableRandom random, int count, int distinctTypes) {
+        List<Code> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String type = random.nextInt(20) == 0 ? null : "type" + random.nextInt(distinctTypes);
+            String name = random.nextInt(20) == 0 ? null : randomCode(random) + " " + i;
+            String category = random.nextInt(20) == 0 ? null : "category" + random.nextInt(5);
+            rows.add(new Code(randomCode(random), type, name, category));
+        }
+        return rows;
+    }
+
+    private static String randomCode(SplittableRandom random) {
+        if (random.nextInt(50) == 0) {
+            return null;
+        }
+        // Up to three characters of a small alphabet, so identifiers repeat often.
+        StringBuilder code = new StringBuilder();
+        for (int length = random.nextInt(4); length > 0; length--) {
+            code.appendCodePoint(CHARACTERS[random.nextInt(CHARACTERS.length)]);
+        }
+        return code.toString();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.backend.service;
+
+import com.example.backend.service.SnapshotResponseCache.CachedResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks which responses the cache keeps: one serialization per view and snapshot, shared by concurrent
+ * requests, nothing for "not found", and nothing for snapshots older than the newest one seen.
+ */
+class SnapshotResponseCacheTest {
+
+    private final SnapshotResponseCache cache = new SnapshotResponseCache(new ObjectMapper(), new SimpleMeterRegistry(), 1 << 20);
+
+    @Test
+    void concurrentRequestsShareOneSerialization() throws Exception {
+        CodeSnapshot snapshot = CodeSnapshotPagingTest.snapshot(1, CodeStorageMode.heap, List.of());
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<CachedResponse>> responses = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 8; i++) {
+                responses.add(executor.submit(() -> cache.get(snapshot, "view", () -> {
+                    loads.incrementAndGet();
+                    awaitUninterruptibly(release);
+                    return cache.serialize(List.of("a", "b"), null);
+                })));
+            }
+            // Another view is not held up by the serialization in progress.
+            assertThat(cache.get(snapshot, "other", () -> cache.serialize("c", null)).body()).isNotNull();
+            release.countDown();
+            for (Future<CachedResponse> response : responses) {
+                assertThat(new String(response.get(10, TimeUnit.SECONDS).body(), StandardCharsets.UTF_8))
+                        .isEqualTo("[\"a\",\"b\"]");
+            }
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void doesNotCacheNotFound() {
+        CodeSnapshot snapshot = CodeSnapshotPagingTest.snapshot(1, CodeStorageMode.heap, List.of());
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(cache.get(snapshot, "missing", () -> {
+            loads.incrementAndGet();
+            return null;
+        })).isNull();
+        cache.get(snapshot, "missing", () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void doesNotCacheOlderSnapshots() {
+        CodeSnapshot older = CodeSnapshotPagingTest.snapshot(1, CodeStorageMode.heap, List.of());
+        CodeSnapshot newer = CodeSnapshotPagingTest.snapshot(2, CodeStorageMode.heap, List.of());
+        cache.get(older, "view", () -> cache.serialize("old", null));
+        cache.get(newer, "view", () -> cache.serialize("new", null));
+        AtomicInteger loads = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            CachedResponse response = cache.get(older, "view", () -> {
+                loads.incrementAndGet();
+                return cache.serialize("old", null);
+            });
+            assertThat(new String(response.body(), StandardCharsets.UTF_8)).isEqualTo("\"old\"");
+        }
+
+        // The older entry was dropped when the newer snapshot was seen and is not added back.
+        assertThat(loads).hasValue(2);
+        assertThat(cache.get(newer, "view", () -> null).body()).isEqualTo("\"new\"".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+
+/**
+ * Builds a {@link CodeDataService} outside of Spring for tests, with the defaults of application.properties
+ * and the given data file and Base64 service client. Public, so controller tests can load and reload data too.
+ */
+public final class TestCodeDataService {
+
+    private TestCodeDataService() {
+    }
+
+    /**
+     * @param dataFile The data file to read.
+     * @param client The Base64 service client, usually a mock.
+     * @return The service; {@link #load} has not been called yet, so settings can still be changed.
+     */
+    public static CodeDataService create(Path dataFile, Base64ServiceClient client) {
+        CodeDataService service = new CodeDataService(new ObjectMapper(), client, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "dataFilePath", dataFile.toString());
+        ReflectionTestUtils.setField(service, "base64ServiceUrl", "http://localhost:0");
+        ReflectionTestUtils.setField(service, "reloadEnabled", true);
+        ReflectionTestUtils.setField(service, "defaultPageSize", 100);
+        ReflectionTestUtils.setField(service, "maxPageSize", 10_000);
+        ReflectionTestUtils.setField(service, "storageMode", CodeStorageMode.heap);
+        ReflectionTestUtils.setField(service, "decodeMode", DecodeMode.service);
+        ReflectionTestUtils.setField(service, "decodeBatchSize", 1000);
+        ReflectionTestUtils.setField(service, "decodeParallelism", 4);
+        ReflectionTestUtils.setField(service, "decodeInitialBackoffMs", 1000L);
+        ReflectionTestUtils.setField(service, "decodeMaxBackoffMs", 60_000L);
+        return service;
+    }
+
+    /**
+     * Runs the startup load, as Spring does after construction.
+     */
+    public static CodeDataService load(CodeDataService service) {
+        service.loadData();
+        return service;
+    }
+
+    /**
+     * Runs one poll of the reload schedule.
+     */
+    public static void reload(CodeDataService service) {
+        service.reloadIfChanged();
+    }
+}
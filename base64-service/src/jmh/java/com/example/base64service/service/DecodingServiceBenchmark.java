@@ -0,0 +1,145 @@
+package com.example.base64service.service;
+
+import com.example.base64service.dto.Code;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-field and per-batch cost of {@link DecodingService}.
+ * <p>
+ * {@code legacyDecodeField} is the implementation before the allocation-lean rewrite, kept here as the baseline.
+ * Run with {@code -prof gc} and compare {@code gc.alloc.rate.norm}, which is the bytes allocated per operation
+ * (per decoded field for the field benchmarks, per batch for the list benchmarks). The list benchmarks run on
+ * batches of 10^3 to 10^7 rows; narrow a run with {@code -p batchSize=...}.
+ * <p>
+ * The {@code cached*} variants go through the decoded value cache, which holds every value of the batch after
+ * warm-up (up to the cache limit); the other variants run with the cache disabled and measure the decoder itself.
+ * {@code parallelDecodeCodeList} splits the batch over one decode worker per available processor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecodingServiceBenchmark {
+
+    private static final String BASE64_PREFIX = "base64:";
+
+    /**
+     * One encoded field value.
+     */
+    @State(Scope.Benchmark)
+    public static class Field {
+
+        /** Length of the decoded value in bytes. */
+        @Param({"8", "64", "512"})
+        public int decodedLength;
+
+        final DecodingService decodingService = new DecodingService(new SimpleMeterRegistry(), 0, Integer.MAX_VALUE, 1);
+        final DecodingService cachedDecodingService = new DecodingService(new SimpleMeterRegistry(), 64L * 1024 * 1024, Integer.MAX_VALUE, 1);
+        String encodedField;
+
+        @Setup
+        public void setUp() {
+            encodedField = BASE64_PREFIX + encode(new Random(42), decodedLength);
+        }
+    }
+
+    /**
+     * A request batch in which every other row has an encoded name of 48 decoded bytes.
+     */
+    @State(Scope.Benchmark)
+    public static class Batch {
+
+        @Param({"1000", "10000", "100000", "1000000", "10000000"})
+        public int batchSize;
+
+        final DecodingService decodingService = new DecodingService(new SimpleMeterRegistry(), 0, Integer.MAX_VALUE, 1);
+        final DecodingService cachedDecodingService = new DecodingService(new SimpleMeterRegistry(), 64L * 1024 * 1024, Integer.MAX_VALUE, 1);
+        final DecodingService parallelDecodingService = new DecodingService(new SimpleMeterRegistry(), 0, 1, 0);
+        List<Code> codes;
+
+        @Setup
+        public void setUp() {
+            Random random = new Random(42);
+            codes = new ArrayList<>(batchSize);
+            for (int i = 0; i < batchSize; i++) {
+                String name = i % 2 == 0 ? BASE64_PREFIX + encode(random, 48) : "plain-" + i;
+                codes.add(new Code("C" + i, "type", name, "category"));
+            }
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String legacyDecodeField(Field field) {
+        return legacyDecodeField(field.encodedField);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String decodeField(Field field) {
+        return field.decodingService.decodeField(field.encodedField, "name", "C0");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String cachedDecodeField(Field field) {
+        return field.cachedDecodingService.decodeField(field.encodedField, "name", "C0");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Code> decodeCodeList(Batch batch) {
+        return batch.decodingService.decodeCodeList(batch.codes);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Code> parallelDecodeCodeList(Batch batch) {
+        return batch.parallelDecodingService.decodeCodeList(batch.codes);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Code> cachedDecodeCodeList(Batch batch) {
+        return batch.cachedDecodingService.decodeCodeList(batch.codes);
+    }
+
+    private static String legacyDecodeField(String value) {
+        if (value != null && value.startsWith(BASE64_PREFIX)) {
+            String encodedPart = value.substring(BASE64_PREFIX.length());
+            try {
+                byte[] decodedBytes = Base64.getDecoder().decode(encodedPart);
+                return new String(decodedBytes, StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                return value;
+            }
+        }
+        return value;
+    }
+
+    private static String encode(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append((char) ('a' + random.nextInt(26)));
+        }
+        return Base64.getEncoder().encodeToString(text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
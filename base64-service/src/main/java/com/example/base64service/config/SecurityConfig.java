@@ -1,7 +1,11 @@
 package com.example.base64service.config;
 
+import com.example.security.CachingJwtAuthenticationManager;
+import com.example.security.TokenValidationConfig;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -25,32 +29,39 @@ import java.util.stream.Stream;
  * Spring Security configuration for the Base64 Service.
  * Configures the application as an OAuth2 Resource Server, validates JWTs,
  * and restricts access to the /decode endpoint to users with the 'admin' role.
+ * The health endpoint is open so that probes need no token; the Prometheus endpoint takes any valid token.
+ * Signing keys are prefetched and validated tokens cached by the shared {@link TokenValidationConfig}, as in the backend.
  */
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(jsr250Enabled = true, securedEnabled = true)
+@Import(TokenValidationConfig.class)
 public class SecurityConfig {
 
     /**
      * Configures the security filter chain for the Base64 service.
      *
      * @param http HttpSecurity object to configure.
+     * @param authenticationManager Authenticates bearer tokens, caching the ones it accepts.
      * @return The configured SecurityFilterChain.
      * @throws Exception If configuration fails.
      */
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http,
+                                           CachingJwtAuthenticationManager authenticationManager) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authorize -> authorize
-                                .requestMatchers(HttpMethod.POST, "/decode").hasAuthority("ROLE_admin")
+                                .requestMatchers(HttpMethod.POST, "/decode", "/decode/values").hasAuthority("ROLE_admin")
+                                .requestMatchers(EndpointRequest.to("health")).permitAll()
+                                .requestMatchers(EndpointRequest.to("prometheus")).authenticated()
                                 .anyRequest().denyAll()
                 )
 
                 .oauth2ResourceServer(oauth2 -> oauth2
                         .jwt(jwt -> jwt
-                                .jwtAuthenticationConverter(jwtAuthenticationConverter())
+                                .authenticationManager(authenticationManager)
                         )
                 );
 
@@ -2,30 +2,69 @@ package com.example.base64service.controller;
 
 import com.example.base64service.dto.Code;
 import com.example.base64service.service.DecodingService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
  * REST Controller for handling Base64 decoding requests.
+ * <p>
+ * POST /decode exchanges either JSON or Smile (binary JSON, {@value #SMILE_VALUE}); the request and response
+ * formats follow the Content-Type and Accept headers, with JSON as the fallback.
+ * <p>
+ * POST /decode binds the whole batch by default. Clients that send {@code Accept: application/x-ndjson}
+ * get the streaming variant instead, which decodes rows one at a time as they are read and writes each
+ * one back immediately, so memory per request does not grow with the batch size.
+ * <p>
+ * POST /decode/values takes a plain list of (typically deduplicated) field values instead of whole rows.
  */
 @RestController
 public class DecodeController {
 
     private static final Logger log = LoggerFactory.getLogger(DecodeController.class);
 
+    static final String SMILE_VALUE = "application/x-jackson-smile";
+    private static final MediaType SMILE = MediaType.parseMediaType(SMILE_VALUE);
+
     private final DecodingService decodingService;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper smileMapper;
+    private final ObjectReader codeReader;
+    private final ObjectReader smileCodeReader;
+    private final ObjectWriter codeWriter;
 
     /**
      * Constructor for injecting the DecodingService.
      * @param decodingService The service responsible for decoding logic.
+     * @param objectMapper The application's JSON mapper, used by the streaming variant.
      */
-    public DecodeController(DecodingService decodingService) {
+    public DecodeController(DecodingService decodingService, ObjectMapper objectMapper) {
         this.decodingService = decodingService;
+        this.objectMapper = objectMapper;
+        this.smileMapper = objectMapper.copyWith(new SmileFactory());
+        this.codeReader = objectMapper.readerFor(Code.class);
+        this.smileCodeReader = smileMapper.readerFor(Code.class);
+        this.codeWriter = objectMapper.writerFor(Code.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     /**
@@ -37,7 +76,9 @@ public class DecodeController {
      * @param codesToDecode A list of Code objects from the request body.
      * @return A list of Code objects with relevant fields decoded.
      */
-    @PostMapping("/decode")
+    @PostMapping(value = "/decode",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, SMILE_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, SMILE_VALUE})
     public List<Code> decodeCodes(@RequestBody List<Code> codesToDecode) {
         log.info("Received request to decode {} codes.", (codesToDecode != null ? codesToDecode.size() : 0));
 
@@ -45,4 +86,102 @@ public class DecodeController {
         log.info("Returning {} processed codes.", decodedCodes.size());
         return decodedCodes;
     }
+
+    /**
+     * POST /decode/values
+     * Accepts a list of field values and returns them in the same order with Base64 encoded values decoded.
+     * Callers send each distinct encoded value once and map the results back to their rows by position.
+     * Requires authentication and admin role (enforced via SecurityConfig).
+     *
+     * @param values A list of field values from the request body.
+     * @return The values in request order, decoded where they carry the Base64 prefix.
+     */
+    @PostMapping(value = "/decode/values",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, SMILE_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, SMILE_VALUE})
+    public List<String> decodeValues(@RequestBody List<String> values) {
+        log.info("Received request to decode {} values.", (values != null ? values.size() : 0));
+
+        List<String> decodedValues = decodingService.decodeValues(values);
+        log.info("Returning {} processed values.", decodedValues.size());
+        return decodedValues;
+    }
+
+    /**
+     * POST /decode with {@code Accept: application/x-ndjson}
+     * Reads the request body as a token stream (either an array of Code objects or a sequence of Code objects),
+     * decodes each object as soon as it has been read, and writes it to the response as one NDJSON line in
+     * input order. The body is parsed as Smile if its Content-Type is {@value #SMILE_VALUE}, as JSON otherwise;
+     * the response is always NDJSON. Only one row is held at a time; the response is flushed after the first
+     * row and then whenever the servlet output buffer fills, so the client starts receiving results before
+     * it has finished sending the batch.
+     * <p>
+     * A body that cannot be parsed or read is answered with 400 as long as no row has been sent. Once the
+     * response is committed the error can only be logged, and the client sees a truncated stream.
+     *
+     * @param request  The servlet request the rows are read from.
+     * @param response The servlet response the decoded rows are written to.
+     * @throws IOException If the response stream cannot be opened.
+     */
+    @PostMapping(value = "/decode", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamDecodeCodes(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        boolean smile = isSmile(request.getContentType());
+        ObjectReader reader = smile ? smileCodeReader : codeReader;
+        int count = 0;
+        try (JsonParser parser = (smile ? smileMapper : objectMapper).getFactory().createParser(request.getInputStream());
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Rows are separated by the newlines written below, not by Jackson's default space.
+            generator.setRootValueSeparator(null);
+            // Leave committing the response to flushBuffer, so a malformed body can still be answered with 400.
+            generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+            while (token != null && token != JsonToken.END_ARRAY) {
+                Code code = token == JsonToken.VALUE_NULL ? null : reader.readValue(parser);
+                codeWriter.writeValue(generator, decodingService.decodeSingleCode(code));
+                generator.writeRaw('\n');
+                if (++count == 1) {
+                    generator.flush();
+                    response.flushBuffer();
+                }
+                token = parser.nextToken();
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Malformed streaming decode request after {} codes: {}", count, e.getOriginalMessage());
+            rejectIfUncommitted(response);
+            return;
+        } catch (IOException e) {
+            // Output is buffered until the first row is flushed, so an uncommitted response means the body could
+            // not be read (e.g. a truncated upload); after that the client connection itself is gone.
+            log.warn("Streaming decode request failed after {} codes: {}", count, e.getMessage());
+            rejectIfUncommitted(response);
+            return;
+        }
+        log.info("Streamed {} processed codes.", count);
+    }
+
+    private static boolean isSmile(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            return SMILE.isCompatibleWith(MediaType.parseMediaType(contentType));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    private static void rejectIfUncommitted(HttpServletResponse response) {
+        if (!response.isCommitted()) {
+            // setStatus rather than sendError: the error page dispatch to /error is denied by SecurityConfig.
+            response.resetBuffer();
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+        }
+    }
 }
\ No newline at end of file
@@ -1,18 +1,51 @@
 package com.example.base64service.service;
 
 import com.example.base64service.dto.Code;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
-import java.util.Base64;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.UnaryOperator;
 
 /**
  * Service responsible for decoding Base64 encoded fields within Code objects.
+ * <p>
+ * The decode path is written to keep garbage low for large batches: values are decoded straight from
+ * the character after the prefix into a per-thread scratch buffer, so the only allocation per decoded
+ * field is the resulting String.
+ * <p>
+ * Backends send the same encoded values again and again, so decoded values are kept in a Caffeine cache
+ * keyed by the encoded string (W-TinyLFU eviction, bounded by the estimated size of the cached strings,
+ * 'app.decode.cache.max-bytes'; 0 disables it). A value is decoded at most once while it stays cached,
+ * also when concurrent requests miss on it at the same time; lookups of different values never wait on
+ * each other. Values that are not valid Base64 are cached as themselves.
+ * <p>
+ * Batches of at least 'app.decode.parallel.threshold' entries are split with fork/join and decoded on a
+ * dedicated pool of 'app.decode.parallel.threads' workers (default: one per available processor), so one
+ * large request can use every core without competing with the common pool. Smaller batches are decoded
+ * on the request thread, where the split overhead would outweigh the gain.
+ * <p>
+ * Every encoded value is counted in 'decode.fields', tagged by field and by whether it decoded or failed
+ * (cache hits included). The value cache reports as cache 'decodedValues'.
  */
 @Service
 public class DecodingService {
@@ -20,6 +53,73 @@ public class DecodingService {
     private static final Logger log = LoggerFactory.getLogger(DecodingService.class);
     private static final String BASE64_PREFIX = "base64:";
 
+    /** Scratch buffers larger than this are not kept per thread. */
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private static final int[] FROM_BASE64 = new int[256];
+
+    static {
+        Arrays.fill(FROM_BASE64, -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < alphabet.length(); i++) {
+            FROM_BASE64[alphabet.charAt(i)] = i;
+        }
+        FROM_BASE64['='] = -2;
+    }
+
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[256]);
+
+    /** Approximate heap taken by one cache entry apart from the characters of its two strings. */
+    private static final int CACHE_ENTRY_OVERHEAD_BYTES = 128;
+
+    /** Smallest slice a parallel decode is split into. */
+    private static final int MIN_PARALLEL_SLICE = 512;
+
+    private final Cache<String, String> cache;
+    private final int parallelThreshold;
+    private final ForkJoinPool decodePool;
+    private final FieldMeters nameMeters;
+    private final FieldMeters typeMeters;
+    private final FieldMeters valueMeters;
+
+    public DecodingService(MeterRegistry meterRegistry,
+                           @Value("${app.decode.cache.max-bytes:33554432}") long cacheMaxBytes,
+                           @Value("${app.decode.parallel.threshold:4096}") int parallelThreshold,
+                           @Value("${app.decode.parallel.threads:0}") int parallelThreads) {
+        this.cache = cacheMaxBytes > 0
+                ? Caffeine.newBuilder()
+                        .maximumWeight(cacheMaxBytes)
+                        .weigher((String encoded, String decoded) -> estimateEntryBytes(encoded, decoded))
+                        .recordStats()
+                        .build()
+                : null;
+        this.parallelThreshold = Math.max(1, parallelThreshold);
+        this.decodePool = new ForkJoinPool(
+                parallelThreads > 0 ? parallelThreads : Runtime.getRuntime().availableProcessors(),
+                pool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("decode-worker-" + thread.getPoolIndex());
+                    return thread;
+                },
+                null, false);
+
+        this.nameMeters = FieldMeters.register(meterRegistry, "name");
+        this.typeMeters = FieldMeters.register(meterRegistry, "type");
+        this.valueMeters = FieldMeters.register(meterRegistry, "value");
+        if (cache != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "decodedValues");
+            Gauge.builder("decode.cache.size", this, DecodingService::getCacheSizeBytes)
+                    .description("Estimated size of the cached decoded values")
+                    .baseUnit(BaseUnits.BYTES)
+                    .register(meterRegistry);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        decodePool.shutdownNow();
+    }
+
     /**
      * Decodes Base64 encoded 'name' and 'type' fields in a list of Code objects.
      * Fields prefixed with "base64:" are processed.
@@ -37,9 +137,50 @@ public class DecodingService {
 
         log.debug("Processing {} codes for potential Base64 decoding.", inputCodes.size());
 
-        return inputCodes.stream()
-                .map(this::decodeSingleCode)
-                .collect(Collectors.toList());
+        return decodeAll(inputCodes, this::decodeSingleCode);
+    }
+
+    /**
+     * Decodes a list of field values, as used by callers that deduplicate values before sending them.
+     * Values prefixed with "base64:" are decoded; all other values, and values that are not valid Base64,
+     * are returned unchanged.
+     *
+     * @param values The values to process.
+     * @return The processed values in input order. Returns an empty list if the input is null or empty.
+     */
+    public List<String> decodeValues(List<String> values) {
+        if (values == null || values.isEmpty()) {
+            log.debug("Received null or empty list of values for decoding, returning empty list.");
+            return Collections.emptyList();
+        }
+
+        log.debug("Processing {} values for potential Base64 decoding.", values.size());
+
+        return decodeAll(values, value -> decodeField(value, "value", null));
+    }
+
+    /**
+     * Applies a decoder to every element, in parallel on the decode pool once the batch reaches the threshold.
+     *
+     * @return The results in input order.
+     */
+    private <T> List<T> decodeAll(List<T> input, UnaryOperator<T> decoder) {
+        int size = input.size();
+        if (size < parallelThreshold || decodePool.getParallelism() == 1) {
+            List<T> decoded = new ArrayList<>(size);
+            for (T element : input) {
+                decoded.add(decoder.apply(element));
+            }
+            return decoded;
+        }
+        // Random access is needed for splitting; request bodies are already ArrayLists.
+        List<T> source = input instanceof RandomAccess ? input : new ArrayList<>(input);
+        Object[] decoded = new Object[size];
+        int sliceSize = Math.max(MIN_PARALLEL_SLICE, size / (decodePool.getParallelism() * 4));
+        decodePool.invoke(new DecodeSlice<>(source, decoder, decoded, 0, size, sliceSize));
+        @SuppressWarnings("unchecked")
+        List<T> result = (List<T>) Arrays.asList(decoded);
+        return result;
     }
 
     /**
@@ -48,7 +189,7 @@ public class DecodingService {
      * @param originalCode The original Code object.
      * @return A new Code object with decoded fields, or the original object if no decoding occurred.
      */
-    private Code decodeSingleCode(Code originalCode) {
+    public Code decodeSingleCode(Code originalCode) {
         if (originalCode == null) {
             return null;
         }
@@ -63,7 +204,9 @@ public class DecodingService {
             return originalCode;
         }
 
-        log.trace("Decoded fields for code [{}]: name='{}', type='{}'", originalCode.getCode(), decodedName, decodedType);
+        if (log.isTraceEnabled()) {
+            log.trace("Decoded fields for code [{}]: name='{}', type='{}'", originalCode.getCode(), decodedName, decodedType);
+        }
         return new Code(
                 originalCode.getCode(),
                 decodedType,
@@ -74,24 +217,215 @@ public class DecodingService {
 
     /**
      * Decodes a single field value if it starts with the Base64 prefix.
+     * Accepts exactly what {@link java.util.Base64#getDecoder()} accepts: the basic alphabet,
+     * optional but well-formed padding, and nothing after the padding. Encoded values are looked up in the
+     * decoded value cache first.
      *
      * @param value     The field value to potentially decode.
-     * @param fieldName The name of the field (for logging).
+     * @param fieldName The name of the field (for logging and metrics).
      * @param codeId    The ID of the code (for logging).
      * @return The decoded string, or the original value if not encoded or if decoding fails.
      */
-    private String decodeField(String value, String fieldName, String codeId) {
-        if (value != null && value.startsWith(BASE64_PREFIX)) {
-            String encodedPart = value.substring(BASE64_PREFIX.length());
-            try {
-                byte[] decodedBytes = Base64.getDecoder().decode(encodedPart);
-                return new String(decodedBytes, StandardCharsets.UTF_8);
-            } catch (IllegalArgumentException e) {
-                log.warn("Failed to decode Base64 value for field '{}' in code [{}]. Input was: '{}'. Error: {}",
-                        fieldName, codeId, value, e.getMessage());
-                return value;
+    String decodeField(String value, String fieldName, String codeId) {
+        if (value == null || !value.startsWith(BASE64_PREFIX)) {
+            return value;
+        }
+        // Hits are served without locking; a miss only locks the hash bin of its own key while decoding.
+        String decoded = cache == null
+                ? decode(value, fieldName, codeId)
+                : cache.get(value, encoded -> decode(encoded, fieldName, codeId));
+        FieldMeters meters = switch (fieldName) {
+            case "name" -> nameMeters;
+            case "type" -> typeMeters;
+            default -> valueMeters;
+        };
+        // Invalid values come back unchanged; a decoded value is always shorter, so this rarely compares characters.
+        if (decoded.equals(value)) {
+            meters.failed().increment();
+            // The cache holds the first caller's instance; hand back this caller's own, so decodeSingleCode
+            // can tell by identity that nothing changed.
+            return value;
+        }
+        meters.decoded().increment();
+        return decoded;
+    }
+
+    /**
+     * @return Hit, miss and eviction counters of the decoded value cache since startup
+     * (all zero if the cache is disabled).
+     */
+    public CacheStats getCacheStats() {
+        return cache != null ? cache.stats() : CacheStats.empty();
+    }
+
+    /**
+     * @return Estimated size of the cached values, in bytes.
+     */
+    public long getCacheSizeBytes() {
+        if (cache == null) {
+            return 0;
+        }
+        return cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0))
+                .orElse(0L);
+    }
+
+    /**
+     * Decodes a value that starts with the Base64 prefix, bypassing the cache.
+     */
+    private String decode(String value, String fieldName, String codeId) {
+        int start = BASE64_PREFIX.length();
+        int end = value.length();
+        byte[] out = scratch((end - start) / 4 * 3 + 2);
+        int length = 0;
+        int bits = 0;
+        int shift = 18;
+        int i = start;
+        // Fast path: whole 4-character units of alphabet characters, 3 bytes each.
+        while (i + 4 <= end) {
+            int unit = lookup(value.charAt(i)) << 18
+                    | lookup(value.charAt(i + 1)) << 12
+                    | lookup(value.charAt(i + 2)) << 6
+                    | lookup(value.charAt(i + 3));
+            if (unit < 0) {
+                break;
+            }
+            out[length++] = (byte) (unit >> 16);
+            out[length++] = (byte) (unit >> 8);
+            out[length++] = (byte) unit;
+            i += 4;
+        }
+        // Tail: padding, a short final unit, or an invalid character.
+        String error = null;
+        while (i < end) {
+            char c = value.charAt(i++);
+            int digit = lookup(c);
+            if (digit >= 0) {
+                bits |= digit << shift;
+                shift -= 6;
+                if (shift < 0) {
+                    out[length++] = (byte) (bits >> 16);
+                    out[length++] = (byte) (bits >> 8);
+                    out[length++] = (byte) bits;
+                    shift = 18;
+                    bits = 0;
+                }
+            } else if (digit == -2) {
+                if ((shift == 6 && (i == end || value.charAt(i++) != '=')) || shift == 18) {
+                    error = "Input byte array has wrong 4-byte ending unit";
+                }
+                break;
+            } else {
+                error = "Illegal base64 character " + Integer.toString(c, 16);
+                break;
+            }
+        }
+        if (error == null) {
+            if (shift == 6) {
+                out[length++] = (byte) (bits >> 16);
+            } else if (shift == 0) {
+                out[length++] = (byte) (bits >> 16);
+                out[length++] = (byte) (bits >> 8);
+            } else if (shift == 12) {
+                error = "Last unit does not have enough valid bits";
+            }
+            if (error == null && i < end) {
+                error = "Input byte array has incorrect ending byte at " + (i - start);
+            }
+        }
+        if (error != null) {
+            log.warn("Failed to decode Base64 value for field '{}' in code [{}]. Input was: '{}'. Error: {}",
+                    fieldName, codeId, value, error);
+            return value;
+        }
+        return new String(out, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Two bytes per character is an upper bound; Latin-1 strings take half of that.
+     */
+    private static int estimateEntryBytes(String encoded, String decoded) {
+        long bytes = CACHE_ENTRY_OVERHEAD_BYTES + 2L * (encoded.length() + (decoded == encoded ? 0 : decoded.length()));
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return The 6-bit value of an alphabet character, -2 for the padding character, or -1 otherwise.
+     * Non-alphabet results are negative, so OR-ing four lookups is negative if any of them is.
+     */
+    private static int lookup(char c) {
+        // (255 - c) >> 31 is -1 for characters above 0xFF, which forces the result to -1 without a branch.
+        return FROM_BASE64[c & 0xFF] | ((255 - c) >> 31);
+    }
+
+    /**
+     * Returns this thread's scratch buffer if it is large enough, growing it up to {@link #MAX_RETAINED_BUFFER}.
+     * Larger requests get a one-off array so a single huge value does not stay pinned to the thread.
+     */
+    private static byte[] scratch(int size) {
+        byte[] buffer = SCRATCH.get();
+        if (buffer.length >= size) {
+            return buffer;
+        }
+        if (size > MAX_RETAINED_BUFFER) {
+            return new byte[size];
+        }
+        buffer = new byte[Math.max(size, Math.min(buffer.length * 2, MAX_RETAINED_BUFFER))];
+        SCRATCH.set(buffer);
+        return buffer;
+    }
+
+    /**
+     * The 'decode.fields' counters of one field.
+     */
+    private record FieldMeters(Counter decoded, Counter failed) {
+
+        static FieldMeters register(MeterRegistry meterRegistry, String field) {
+            return new FieldMeters(counter(meterRegistry, field, "decoded"), counter(meterRegistry, field, "failed"));
+        }
+
+        private static Counter counter(MeterRegistry meterRegistry, String field, String outcome) {
+            return Counter.builder("decode.fields")
+                    .description("Base64-prefixed field values processed")
+                    .tag("field", field)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Decodes the elements in [from, to) into the same positions of the result array, splitting in halves
+     * until a slice is small enough to run sequentially.
+     */
+    private static final class DecodeSlice<T> extends RecursiveAction {
+
+        private final List<T> input;
+        private final UnaryOperator<T> decoder;
+        private final Object[] decoded;
+        private final int from;
+        private final int to;
+        private final int sliceSize;
+
+        DecodeSlice(List<T> input, UnaryOperator<T> decoder, Object[] decoded, int from, int to, int sliceSize) {
+            this.input = input;
+            this.decoder = decoder;
+            this.decoded = decoded;
+            this.from = from;
+            this.to = to;
+            this.sliceSize = sliceSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= sliceSize) {
+                for (int i = from; i < to; i++) {
+                    decoded[i] = decoder.apply(input.get(i));
+                }
+                return;
             }
+            int middle = (from + to) >>> 1;
+            invokeAll(new DecodeSlice<>(input, decoder, decoded, from, middle, sliceSize),
+                    new DecodeSlice<>(input, decoder, decoded, middle, to, sliceSize));
         }
-        return value;
     }
 }
\ No newline at end of file
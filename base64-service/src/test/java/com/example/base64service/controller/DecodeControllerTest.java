@@ -0,0 +1,156 @@
+package com.example.base64service.controller;
+
+import com.example.base64service.dto.Code;
+import com.example.base64service.service.DecodingService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exercises POST /decode through MockMvc: the NDJSON streaming variant with JSON and Smile bodies, the 400 for
+ * a malformed body before anything has been sent, the truncated stream once the response is committed, and
+ * Smile on the batch endpoints.
+ */
+class DecodeControllerTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectMapper SMILE_MAPPER = new ObjectMapper(new SmileFactory());
+    private static final MediaType SMILE = MediaType.parseMediaType(DecodeController.SMILE_VALUE);
+
+    private final DecodingService decodingService = new DecodingService(new SimpleMeterRegistry(), 1 << 20, Integer.MAX_VALUE, 1);
+    private final MockMvc mvc = MockMvcBuilders.standaloneSetup(new DecodeController(decodingService, MAPPER)).build();
+
+    @AfterEach
+    void shutdown() {
+        // Stops the decode pool, as the container does on shutdown.
+        ReflectionTestUtils.invokeMethod(decodingService, "shutdown");
+    }
+
+    @Test
+    void streamsDecodedRowsAsNdjsonInInputOrder() throws Exception {
+        List<Code> codes = encodedCodes(5);
+
+        // Both an array and a plain sequence of objects are accepted.
+        byte[] array = MAPPER.writeValueAsBytes(codes);
+        StringBuilder sequence = new StringBuilder();
+        for (Code code : codes) {
+            sequence.append(MAPPER.writeValueAsString(code)).append('\n');
+        }
+        for (byte[] body : List.of(array, sequence.toString().getBytes(StandardCharsets.UTF_8))) {
+            MockHttpServletResponse response = stream(MediaType.APPLICATION_JSON, body);
+            assertThat(response.getStatus()).isEqualTo(200);
+            assertThat(response.getContentType()).isEqualTo("application/x-ndjson;charset=UTF-8");
+            assertThat(lines(response)).extracting(Code::getName)
+                    .containsExactly("name 0", "name 1", "name 2", "name 3", "name 4");
+        }
+    }
+
+    @Test
+    void streamsSmileBodiesAsNdjson() throws Exception {
+        List<Code> codes = encodedCodes(3);
+
+        MockHttpServletResponse response = stream(SMILE, SMILE_MAPPER.writeValueAsBytes(codes));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentType()).isEqualTo("application/x-ndjson;charset=UTF-8");
+        assertThat(lines(response)).extracting(Code::getCode, Code::getName).containsExactly(
+                tuple("C0", "name 0"),
+                tuple("C1", "name 1"),
+                tuple("C2", "name 2"));
+    }
+
+    @Test
+    void rejectsMalformedBodyBeforeTheFirstRow() throws Exception {
+        for (String body : List.of("[{\"code\":", "[{\"code\": 1,}]", "not json")) {
+            MockHttpServletResponse response = stream(MediaType.APPLICATION_JSON, body.getBytes(StandardCharsets.UTF_8));
+            assertThat(response.getStatus()).as(body).isEqualTo(400);
+            assertThat(response.getContentAsByteArray()).as(body).isEmpty();
+        }
+
+        // A JSON body labelled as Smile is not valid Smile.
+        MockHttpServletResponse response = stream(SMILE, MAPPER.writeValueAsBytes(encodedCodes(2)));
+        assertThat(response.getStatus()).isEqualTo(400);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void truncatesTheStreamWhenTheBodyBreaksAfterTheFirstRow() throws Exception {
+        String first = MAPPER.writeValueAsString(encodedCodes(1).getFirst());
+        byte[] body = ("[" + first + ", {\"code\":").getBytes(StandardCharsets.UTF_8);
+
+        MockHttpServletResponse response = stream(MediaType.APPLICATION_JSON, body);
+
+        // The first row was flushed, so the status can no longer change; the client sees only that row.
+        assertThat(response.isCommitted()).isTrue();
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(lines(response)).extracting(Code::getName).containsExactly("name 0");
+    }
+
+    @Test
+    void exchangesSmileOnTheBatchEndpoints() throws Exception {
+        MockHttpServletResponse codes = mvc.perform(post("/decode")
+                        .contentType(SMILE).accept(SMILE)
+                        .content(SMILE_MAPPER.writeValueAsBytes(encodedCodes(2))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertThat(codes.getContentType()).startsWith(DecodeController.SMILE_VALUE);
+        assertThat(SMILE_MAPPER.readValue(codes.getContentAsByteArray(), new TypeReference<List<Code>>() { }))
+                .extracting(Code::getName).containsExactly("name 0", "name 1");
+
+        MockHttpServletResponse values = mvc.perform(post("/decode/values")
+                        .contentType(SMILE).accept(SMILE)
+                        .content(SMILE_MAPPER.writeValueAsBytes(List.of(encode("a"), "plain", encode("b")))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertThat(SMILE_MAPPER.readValue(values.getContentAsByteArray(), new TypeReference<List<String>>() { }))
+                .containsExactly("a", "plain", "b");
+    }
+
+    private MockHttpServletResponse stream(MediaType contentType, byte[] body) throws Exception {
+        return mvc.perform(post("/decode")
+                        .contentType(contentType)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andReturn().getResponse();
+    }
+
+    private static List<Code> lines(MockHttpServletResponse response) throws Exception {
+        String body = response.getContentAsString(StandardCharsets.UTF_8);
+        assertThat(body).endsWith("\n").doesNotContain("\n\n");
+        List<Code> codes = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            codes.add(MAPPER.readValue(line, Code.class));
+        }
+        return codes;
+    }
+
+    private static List<Code> encodedCodes(int count) {
+        List<Code> codes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            codes.add(new Code("C" + i, "type", encode("name " + i), "category"));
+        }
+        return codes;
+    }
+
+    private static String encode(String value) {
+        return "base64:" + Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.base64service.service;
+
+import com.example.base64service.dto.Code;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks what {@link DecodingService} returns for the values it is given.
+ * <p>
+ * The hand-rolled decoder is fuzzed against {@link Base64#getDecoder()}, which it must match exactly:
+ * the same decoded text for every value the JDK accepts, and the value unchanged for every value it rejects.
+ * Inputs are valid encodings with and without padding, and the same with a few characters replaced, inserted
+ * or removed, drawn mostly from padding and near-alphabet characters.
+ */
+class DecodingServiceTest {
+
+    private static final String PREFIX = "base64:";
+    private static final String MUTATIONS = "====AZaz09+/-_ .\n\réĀŁ中😀";
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, 1 << 20})
+    void decodesLikeJdkDecoder(long cacheMaxBytes) {
+        DecodingService service = new DecodingService(new SimpleMeterRegistry(), cacheMaxBytes, Integer.MAX_VALUE, 1);
+        SplittableRandom random = new SplittableRandom(40);
+        try {
+            for (int run = 0; run < 50_000; run++) {
+                String value = PREFIX + randomInput(random);
+                assertThat(service.decodeField(value, "name", "C" + run)).as(value).isEqualTo(reference(value));
+            }
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void leavesValuesWithoutPrefixAlone() {
+        DecodingService service = new DecodingService(new SimpleMeterRegistry(), 0, Integer.MAX_VALUE, 1);
+        try {
+            String plain = "aGVsbG8=";
+            assertThat(service.decodeField(plain, "name", "C")).isSameAs(plain);
+            assertThat(service.decodeField(null, "name", "C")).isNull();
+            assertThat(service.decodeField(PREFIX, "name", "C")).isEmpty();
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void returnsUnchangedCodesAsTheSameObject() {
+        DecodingService service = new DecodingService(new SimpleMeterRegistry(), 1 << 20, Integer.MAX_VALUE, 1);
+        try {
+            // The first call caches the invalid value; the second gets an equal string from the cache.
+            service.decodeSingleCode(new Code("C1", "type", PREFIX + "not base64!", "category"));
+            Code code = new Code("C2", "type", new String(PREFIX + "not base64!"), "category");
+            assertThat(service.decodeSingleCode(code)).isSameAs(code);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void parallelBatchesKeepInputOrder() {
+        DecodingService service = new DecodingService(new SimpleMeterRegistry(), 0, 1, 4);
+        SplittableRandom random = new SplittableRandom(41);
+        try {
+            List<Code> codes = new ArrayList<>();
+            List<String> values = new ArrayList<>();
+            for (int i = 0; i < 20_000; i++) {
+                String name = random.nextBoolean() ? PREFIX + randomInput(random) : "plain" + i;
+                codes.add(new Code("C" + i, "type", name, "category"));
+                values.add(name);
+            }
+
+            List<Code> decodedCodes = service.decodeCodeList(codes);
+            List<String> decodedValues = service.decodeValues(values);
+
+            assertThat(decodedCodes).hasSize(codes.size());
+            assertThat(decodedValues).hasSize(values.size());
+            for (int i = 0; i < codes.size(); i++) {
+                String expected = reference(values.get(i));
+                assertThat(decodedCodes.get(i).getCode()).isEqualTo("C" + i);
+                assertThat(decodedCodes.get(i).getName()).isEqualTo(expected);
+                assertThat(decodedValues.get(i)).isEqualTo(expected);
+            }
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    /**
+     * The decoder this service used before the allocation-lean rewrite.
+     */
+    private static String reference(String value) {
+        if (!value.startsWith(PREFIX)) {
+            return value;
+        }
+        try {
+            return new String(Base64.getDecoder().decode(value.substring(PREFIX.length())), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return value;
+        }
+    }
+
+    private static String randomInput(SplittableRandom random) {
+        byte[] bytes = new byte[random.nextInt(40)];
+        random.nextBytes(bytes);
+        Base64.Encoder encoder = random.nextBoolean() ? Base64.getEncoder() : Base64.getEncoder().withoutPadding();
+        StringBuilder input = new StringBuilder(encoder.encodeToString(bytes));
+        for (int mutations = random.nextInt(4) - 1; mutations > 0; mutations--) {
+            int position = random.nextInt(input.length() + 1);
+            char c = MUTATIONS.charAt(random.nextInt(MUTATIONS.length()));
+            switch (random.nextInt(3)) {
+                case 0 -> input.insert(position, c);
+                case 1 -> {
+                    if (position < input.length()) {
+                        input.setCharAt(position, c);
+                    }
+                }
+                default -> {
+                    if (position < input.length()) {
+                        input.deleteCharAt(position);
+                    }
+                }
+            }
+        }
+        return input.toString();
+    }
+}
@@ -21,67 +21,19 @@ DATAFILE='data_temp.json' # Use a temporary file name
 touch "${DATAFILE}"
 chown root:root "${DATAFILE}"
 
-# Write header row directly (no comma needed here yet)
-echo '[' > "${DATAFILE}"
-echo '  ["code","type","name"]' >> "${DATAFILE}" # Added comma manually below
+# Generate the rows with the Java generator in tools/datagen, shared with the load test and the backend benchmarks.
+# Scale and shape are set through the environment; see DataFileGenerator for details.
+GENERATOR_ARGS=( "--rows=${DATA_ROWS:-7}" "--out=${DATAFILE}" )
+[ -n "${DATA_SEED}" ] && GENERATOR_ARGS+=( "--seed=${DATA_SEED}" )
+[ -n "${DATA_NAME_BASE64_RATIO}" ] && GENERATOR_ARGS+=( "--name-base64-ratio=${DATA_NAME_BASE64_RATIO}" )
+[ -n "${DATA_TYPE_BASE64_RATIO}" ] && GENERATOR_ARGS+=( "--type-base64-ratio=${DATA_TYPE_BASE64_RATIO}" )
+[ -n "${DATA_DUPLICATE_RATE}" ] && GENERATOR_ARGS+=( "--duplicate-rate=${DATA_DUPLICATE_RATE}" )
+[ -n "${DATA_MALFORMED_RATE}" ] && GENERATOR_ARGS+=( "--malformed-rate=${DATA_MALFORMED_RATE}" )
+
+java /generator/DataFileGenerator.java "${GENERATOR_ARGS[@]}" || exit 1
 echo
 echo
 
-ucs=()
-for ch in {A..Z}
-do
-  ucs=( "${ucs[@]}" "$ch" )
-done
-
-rand_parts=$(cat /dev/urandom | tr -dc 'a-zA-Z0-9' | fold -w 32 | head -n 7)
-
-TYPES=( 'catA' 'catB' 'catC' 'catD' 'catE' )
-
-#  Loop to generate data rows 
-
-MAX_ROWS=7
-
-for (( i=0; i < MAX_ROWS ; i++ ))
-do
-  code="${ucs[$((RANDOM % 26))]}${ucs[$((RANDOM % 26))]}$RANDOM"
-  type="${TYPES[$((RANDOM % 5))]}"
-  name="${code} ${rand_parts[i]}" # name might contain newlines from fold
-
-  # Base64 encoding logic
-  if (( RANDOM % 64 == 0 )); then
-    type="base64:$(echo -n "$type" | base64 -w 0)"
-  fi
-  if (( RANDOM % 8 == 0 )); then
-    # remove newlines BEFORE base64 encoding if name was chosen
-    name_no_newlines=$(echo "$name" | tr -d '\n') # Remove newlines first
-    name="base64:$(echo -n "$name_no_newlines" | base64 -w 0)"
-  else
-    # Remove newlines from name even if not base64 encoding
-    name=$(echo "$name" | tr -d '\n')
-  fi
-
-  # Comma logic
-  if (( i > 0 || MAX_ROWS == 1 )); then
-     # printf for the comma as well to avoid potential extra newline from echo
-     printf "," >> "${DATAFILE}"
-     # Add a newline for readability AFTER the comma
-     printf "\n" >> "${DATAFILE}"
-  else
-     # Add comma after header if it's the only data row
-     printf "," >> "${DATAFILE}"
-     printf "\n" >> "${DATAFILE}"
-  fi
-
-  # Append the row data using printf
-  printf '  ["%s", "%s", "%s"]' "$code" "$type" "$name" >> "${DATAFILE}"
-
- 
-done
-
-# Add final newline and closing bracket
-echo '' >> "${DATAFILE}" # Add newline for readability before bracket
-echo ']' >> "${DATAFILE}"
-
 echo "Temporary database created!"
 
 # Copy data_temp.json to /db/data.json
@@ -67,6 +67,18 @@ echo "Creating client roles..."
   -r "$REALM" \
   -s "name=admin" > /dev/null 2>&1 || echo "Role admin for base64 may already exist" # Redirect stdout
 
+# The backend calls base64-service as itself (client credentials), so its service account needs the admin role there
+echo "Granting the backend service account the base64 admin role..."
+/opt/keycloak/bin/kcadm.sh add-roles \
+  --realm master \
+  --server "$KEYCLOAK_URL" \
+  --user "$ADMIN_USER" \
+  --password "$ADMIN_PASSWORD" \
+  -r "$REALM" \
+  --uusername service-account-devdemo-backend \
+  --cclientid devdemo-base64 \
+  --rolename admin > /dev/null 2>&1 || echo "Failed to grant the backend service account the base64 admin role"
+
 # backend client protocol mappers 
 echo "Creating protocol mappers..."
 /opt/keycloak/bin/kcadm.sh create "clients/${BE_ID}/protocol-mappers/add-models" \
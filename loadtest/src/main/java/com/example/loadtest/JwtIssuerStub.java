@@ -0,0 +1,158 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * In-process stand-in for the Keycloak realm the services trust.
+ * <p>
+ * Serves the realm's OpenID discovery document and JWK set over plain HTTP on localhost, and mints RS256 access
+ * tokens signed with a key pair generated at startup. Tokens carry the claims the services read from Keycloak
+ * tokens: {@code realm_access.roles}, {@code preferred_username} and both service audiences.
+ * <p>
+ * The token endpoint answers the backend's client credentials grant with an admin token for its service account,
+ * whatever client secret it presents.
+ */
+final class JwtIssuerStub implements AutoCloseable {
+
+    static final String REALM_PATH = "/realms/sso";
+    private static final List<String> AUDIENCES = List.of("devdemo-backend", "devdemo-base64");
+    private static final String SERVICE_ACCOUNT = "service-account-devdemo-backend";
+    private static final Duration SERVICE_TOKEN_LIFETIME = Duration.ofMinutes(5);
+
+    private final HttpServer server;
+    private final RSAKey signingKey;
+    private final String issuer;
+
+    private JwtIssuerStub(HttpServer server, RSAKey signingKey, String issuer) {
+        this.server = server;
+        this.signingKey = signingKey;
+        this.issuer = issuer;
+    }
+
+    /**
+     * Starts the issuer.
+     *
+     * @param port The local port to listen on.
+     * @return The running issuer.
+     * @throws IOException If the port cannot be bound.
+     */
+    static JwtIssuerStub start(int port) throws IOException {
+        RSAKey signingKey;
+        try {
+            signingKey = new RSAKeyGenerator(2048).keyID("loadtest-" + UUID.randomUUID()).generate();
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Could not generate the signing key", e);
+        }
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        String issuer = "http://localhost:" + port + REALM_PATH;
+        JwtIssuerStub stub = new JwtIssuerStub(server, signingKey, issuer);
+
+        Map<String, Object> discovery = new LinkedHashMap<>();
+        discovery.put("issuer", issuer);
+        discovery.put("jwks_uri", issuer + "/protocol/openid-connect/certs");
+        discovery.put("token_endpoint", issuer + "/protocol/openid-connect/token");
+        discovery.put("response_types_supported", List.of("code"));
+        discovery.put("subject_types_supported", List.of("public"));
+        discovery.put("id_token_signing_alg_values_supported", List.of("RS256"));
+        byte[] discoveryJson = new ObjectMapper().writeValueAsBytes(discovery);
+        byte[] jwksJson = new JWKSet(signingKey.toPublicJWK()).toString().getBytes(StandardCharsets.UTF_8);
+
+        server.createContext(REALM_PATH + "/.well-known/openid-configuration", exchange -> respond(exchange, discoveryJson));
+        server.createContext(REALM_PATH + "/protocol/openid-connect/certs", exchange -> respond(exchange, jwksJson));
+        server.createContext(REALM_PATH + "/protocol/openid-connect/token", stub::issueServiceToken);
+        server.start();
+        return stub;
+    }
+
+    /**
+     * @return The issuer URI, as the services must be configured with it.
+     */
+    String issuer() {
+        return issuer;
+    }
+
+    /**
+     * Mints an access token.
+     *
+     * @param username The subject and preferred username.
+     * @param roles The realm roles.
+     * @param lifetime How long the token is valid.
+     * @return The serialized token.
+     */
+    String mint(String username, List<String> roles, Duration lifetime) {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(issuer)
+                .subject(username)
+                .audience(AUDIENCES)
+                .issueTime(Date.from(now))
+                .notBeforeTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(lifetime)))
+                .jwtID(UUID.randomUUID().toString())
+                .claim("preferred_username", username)
+                .claim("realm_access", Map.of("roles", roles))
+                .build();
+        SignedJWT token = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256)
+                .keyID(signingKey.getKeyID())
+                .type(JOSEObjectType.JWT)
+                .build(), claims);
+        try {
+            token.sign(new RSASSASigner(signingKey));
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Could not sign the token", e);
+        }
+        return token.serialize();
+    }
+
+    private void issueServiceToken(HttpExchange exchange) throws IOException {
+        String form = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        if (!"POST".equals(exchange.getRequestMethod())
+                || !List.of(form.split("&")).contains("grant_type=client_credentials")) {
+            exchange.sendResponseHeaders(400, -1);
+            exchange.close();
+            return;
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("access_token", mint(SERVICE_ACCOUNT, List.of("admin"), SERVICE_TOKEN_LIFETIME));
+        response.put("token_type", "Bearer");
+        response.put("expires_in", SERVICE_TOKEN_LIFETIME.toSeconds());
+        respond(exchange, new ObjectMapper().writeValueAsBytes(response));
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Collects the latencies and outcomes of one kind of request. Every sample is kept, so percentiles are exact;
+ * at 8 bytes per request this stays small for runs of a few million requests.
+ */
+final class LatencyRecorder {
+
+    private final String operation;
+    private long[] latencies = new long[1024];
+    private int count;
+    private long errors;
+
+    LatencyRecorder(String operation) {
+        this.operation = operation;
+    }
+
+    /**
+     * @param latencyNanos Time from the scheduled send time to the end of the response.
+     * @param success False for transport errors and unexpected status codes.
+     */
+    synchronized void record(long latencyNanos, boolean success) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+        if (!success) {
+            errors++;
+        }
+    }
+
+    /**
+     * @param measuredSeconds The length of the measurement window, for the throughput.
+     * @return The summary of all samples recorded so far.
+     */
+    synchronized Result result(double measuredSeconds) {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return new Result(operation, count, errors, count / measuredSeconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                percentile(sorted, 0.999), count == 0 ? 0 : sorted[count - 1]);
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * Summary of one operation. Latencies are in nanoseconds.
+     */
+    record Result(String operation, long requests, long errors, double throughput,
+                  long p50, long p90, long p99, long p999, long max) {
+    }
+}
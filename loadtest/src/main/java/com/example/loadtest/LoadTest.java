@@ -0,0 +1,187 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+
+/**
+ * End-to-end load test of the backend and the Base64 service on one machine, without Keycloak or network access.
+ * <p>
+ * A run generates a data file with DataFileGenerator (tools/datagen), starts {@link JwtIssuerStub} in this JVM,
+ * starts both services from their executable wars with the {@code loadtest} profile (which makes them trust
+ * the stub), drives them with a {@link Workload} and prints throughput and latency percentiles per operation.
+ * The results are also written as CSV. See {@link LoadTestOptions#USAGE} for the options.
+ */
+public final class LoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (Arrays.asList(args).contains("--help") || Arrays.asList(args).contains("help")) {
+            System.out.print(LoadTestOptions.USAGE);
+            return;
+        }
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+        Path workDirectory = options.repository().resolve("loadtest/target");
+        Files.createDirectories(workDirectory);
+
+        Path dataFile = workDirectory.resolve("loadtest-data.json");
+        generateDataFile(options, dataFile);
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        List<String> jvmArgs = options.serviceJvmArgs().isBlank()
+                ? List.of()
+                : Arrays.asList(options.serviceJvmArgs().trim().split("\\s+"));
+
+        try (JwtIssuerStub issuer = JwtIssuerStub.start(options.issuerPort());
+             ServiceProcess base64Service = ServiceProcess.start("base64-service",
+                     options.repository().resolve("base64-service/target/base64-service-0.0.1-SNAPSHOT.war"),
+                     options.repository().resolve("loadtest/config/base64-service"), jvmArgs,
+                     List.of("--loadtest.issuer.port=" + options.issuerPort(),
+                             "--loadtest.base64-service.port=" + options.base64ServicePort()),
+                     workDirectory);
+             ServiceProcess backend = ServiceProcess.start("backend",
+                     options.repository().resolve("backend/target/backend-0.0.1-SNAPSHOT.war"),
+                     options.repository().resolve("loadtest/config/backend"), jvmArgs,
+                     List.of("--loadtest.issuer.port=" + options.issuerPort(),
+                             "--loadtest.backend.port=" + options.backendPort(),
+                             "--loadtest.base64-service.port=" + options.base64ServicePort(),
+                             "--loadtest.data-file=" + dataFile),
+                     workDirectory)) {
+
+            System.out.println("Issuer at " + issuer.issuer() + "; waiting for the services to start...");
+            base64Service.awaitReady(client, HttpRequest.newBuilder(ServiceProcess.uri(options.base64ServicePort(), "/decode"))
+                    .POST(HttpRequest.BodyPublishers.ofString("[]")).build(), Duration.ofMinutes(3));
+            backend.awaitReady(client, HttpRequest.newBuilder(ServiceProcess.uri(options.backendPort(), "/public/code/-"))
+                    .GET().build(), Duration.ofMinutes(3));
+
+            Duration tokenLifetime = Duration.ofSeconds(options.warmupSeconds() + options.durationSeconds()).plusMinutes(10);
+            String userToken = issuer.mint("loadtest-user", List.of(), tokenLifetime);
+            String adminToken = issuer.mint("loadtest-admin", List.of("admin"), tokenLifetime);
+            checkAccess(client, options, userToken, adminToken);
+            List<String> codeIds = fetchCodeIds(client, options);
+
+            System.out.printf(Locale.ROOT, "Running %s at %.0f req/s: %d s warm-up, %d s measured, %d codes...%n",
+                    options.mix(), options.rps(), options.warmupSeconds(), options.durationSeconds(), codeIds.size());
+            List<LatencyRecorder.Result> results = new Workload(options, client, codeIds, userToken, adminToken).run();
+
+            printReport(results, options, System.out);
+            writeCsv(results, options.report());
+            System.out.println("Report written to " + options.report());
+        }
+    }
+
+    /**
+     * @return The java launcher of this JVM, used for the generator and the services.
+     */
+    static String javaExecutable() {
+        return ProcessHandle.current().info().command().orElse(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+    }
+
+    /**
+     * Runs DataFileGenerator from its source file, the same way the datagen container does.
+     */
+    private static void generateDataFile(LoadTestOptions options, Path dataFile) throws IOException, InterruptedException {
+        Path generator = options.repository().resolve("tools/datagen/src/main/java/com/example/datagen/DataFileGenerator.java");
+        Process process = new ProcessBuilder(javaExecutable(), generator.toString(),
+                "--rows=" + options.rows(), "--seed=" + options.seed(), "--out=" + dataFile)
+                .inheritIO()
+                .start();
+        if (process.waitFor() != 0) {
+            throw new IOException("Data file generation failed with status " + process.exitValue());
+        }
+    }
+
+    /**
+     * Fails fast if the services do not accept the stub's tokens, instead of reporting a run full of 401s.
+     */
+    private static void checkAccess(HttpClient client, LoadTestOptions options, String userToken, String adminToken)
+            throws IOException, InterruptedException {
+        int userInfo = client.send(HttpRequest.newBuilder(ServiceProcess.uri(options.backendPort(), "/private/userinfo"))
+                .header("Authorization", "Bearer " + userToken).GET().build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        int decode = client.send(HttpRequest.newBuilder(ServiceProcess.uri(options.base64ServicePort(), "/decode"))
+                .header("Authorization", "Bearer " + adminToken).header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("[]")).build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (userInfo != 200 || decode != 200) {
+            throw new IOException("Services rejected the load-test tokens (backend /private/userinfo: " + userInfo
+                    + ", base64-service /decode: " + decode + "); check the service logs in loadtest/target");
+        }
+    }
+
+    private static List<String> fetchCodeIds(HttpClient client, LoadTestOptions options) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(
+                HttpRequest.newBuilder(ServiceProcess.uri(options.backendPort(), "/public/codes?limit=10000")).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IOException("GET /public/codes returned " + response.statusCode());
+        }
+        List<String> codeIds = MAPPER.readValue(response.body(), new TypeReference<List<String>>() {
+        });
+        if (codeIds.isEmpty()) {
+            throw new IOException("The backend loaded no codes; see loadtest/target/loadtest-backend.log");
+        }
+        return codeIds;
+    }
+
+    private static void printReport(List<LatencyRecorder.Result> results, LoadTestOptions options, PrintStream out) {
+        out.printf(Locale.ROOT, "%n%-21s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+                "operation", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        long requests = 0;
+        long errors = 0;
+        for (LatencyRecorder.Result result : results) {
+            out.printf(Locale.ROOT, "%-21s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    result.operation(), result.requests(), result.errors(), result.throughput(),
+                    millis(result.p50()), millis(result.p90()), millis(result.p99()), millis(result.p999()),
+                    millis(result.max()));
+            requests += result.requests();
+            errors += result.errors();
+        }
+        out.printf(Locale.ROOT, "%-21s %10d %8d %10.1f   (target %.1f req/s)%n",
+                "total", requests, errors, requests / (double) options.durationSeconds(), options.rps());
+    }
+
+    private static void writeCsv(List<LatencyRecorder.Result> results, Path report) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("operation,requests,errors,throughput_rps,p50_ms,p90_ms,p99_ms,p999_ms,max_ms");
+        for (LatencyRecorder.Result result : results) {
+            lines.add(String.format(Locale.ROOT, "%s,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f",
+                    result.operation(), result.requests(), result.errors(), result.throughput(),
+                    millis(result.p50()), millis(result.p90()), millis(result.p99()), millis(result.p999()),
+                    millis(result.max())));
+        }
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        Files.write(report, lines);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
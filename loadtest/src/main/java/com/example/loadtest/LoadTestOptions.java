@@ -0,0 +1,126 @@
+package com.example.loadtest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Settings of one load-test run, parsed from {@code --name=value} arguments (the dashes may be omitted).
+ *
+ * @param repository The repository root (containing backend/ and base64-service/).
+ * @param rows Rows in the generated data file.
+ * @param seed Seed of the data file and of the request sequence.
+ * @param rps Target request rate across all operations.
+ * @param warmupSeconds Length of the unrecorded warm-up.
+ * @param durationSeconds Length of the measurement window.
+ * @param mix Relative weight of each operation.
+ * @param pageSize Page size of the sorted listings.
+ * @param decodeBatch Codes per decode request.
+ * @param maxInFlight Requests allowed in flight before new ones are counted as errors instead of sent.
+ * @param requestTimeoutSeconds Timeout of a single request.
+ * @param backendPort Local port of the backend.
+ * @param base64ServicePort Local port of the Base64 service.
+ * @param issuerPort Local port of the token issuer.
+ * @param serviceJvmArgs JVM options for both services, space separated.
+ * @param report CSV file the results are written to.
+ */
+record LoadTestOptions(Path repository, long rows, long seed, double rps, int warmupSeconds, int durationSeconds,
+                       Map<Workload.Operation, Integer> mix, int pageSize, int decodeBatch, int maxInFlight,
+                       int requestTimeoutSeconds, int backendPort, int base64ServicePort, int issuerPort,
+                       String serviceJvmArgs, Path report) {
+
+    static final String USAGE = """
+            Options (all optional):
+              --repo=PATH            repository root (default: . or .., whichever contains backend/)
+              --rows=N               rows in the generated data file (default 100000)
+              --seed=N               seed of the data file and the request sequence (default 42)
+              --rps=N                target requests per second across all operations (default 200)
+              --warmup=SECONDS       unrecorded warm-up (default 10)
+              --duration=SECONDS     measurement window (default 60)
+              --mix=OP:W,...         operation weights; operations: lookup, sorted, decode, decodedcodes
+                                     (default lookup:58,sorted:30,decode:10,decodedcodes:2)
+              --page-size=N          page size of the sorted listings (default 100)
+              --decode-batch=N       codes per decode request (default 100)
+              --max-in-flight=N      in-flight limit; requests over it count as errors (default 2000)
+              --timeout=SECONDS      per-request timeout (default 30)
+              --backend-port=N       (default 18080)
+              --base64-port=N        (default 18544)
+              --issuer-port=N        (default 18865)
+              --service-jvm-args=S   JVM options for both services (default "-Xmx1g")
+              --report=PATH          CSV report (default loadtest/target/loadtest-report.csv)
+            """;
+
+    static LoadTestOptions parse(String[] args) {
+        Path repository = Files.isDirectory(Path.of("backend")) ? Path.of(".") : Path.of("..");
+        long rows = 100_000;
+        long seed = 42;
+        double rps = 200;
+        int warmupSeconds = 10;
+        int durationSeconds = 60;
+        Map<Workload.Operation, Integer> mix = parseMix("lookup:58,sorted:30,decode:10,decodedcodes:2");
+        int pageSize = 100;
+        int decodeBatch = 100;
+        int maxInFlight = 2000;
+        int requestTimeoutSeconds = 30;
+        int backendPort = 18080;
+        int base64ServicePort = 18544;
+        int issuerPort = 18865;
+        String serviceJvmArgs = "-Xmx1g";
+        Path report = null;
+
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected --option=value but got: " + arg);
+            }
+            String value = arg.substring(separator + 1);
+            String name = arg.substring(arg.startsWith("--") ? 2 : 0, separator);
+            switch (name) {
+                case "repo" -> repository = Path.of(value);
+                case "rows" -> rows = Long.parseLong(value);
+                case "seed" -> seed = Long.parseLong(value);
+                case "rps" -> rps = Double.parseDouble(value);
+                case "warmup" -> warmupSeconds = Integer.parseInt(value);
+                case "duration" -> durationSeconds = Integer.parseInt(value);
+                case "mix" -> mix = parseMix(value);
+                case "page-size" -> pageSize = Integer.parseInt(value);
+                case "decode-batch" -> decodeBatch = Integer.parseInt(value);
+                case "max-in-flight" -> maxInFlight = Integer.parseInt(value);
+                case "timeout" -> requestTimeoutSeconds = Integer.parseInt(value);
+                case "backend-port" -> backendPort = Integer.parseInt(value);
+                case "base64-port" -> base64ServicePort = Integer.parseInt(value);
+                case "issuer-port" -> issuerPort = Integer.parseInt(value);
+                case "service-jvm-args" -> serviceJvmArgs = value;
+                case "report" -> report = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (rps <= 0 || durationSeconds <= 0 || warmupSeconds < 0 || rows <= 0) {
+            throw new IllegalArgumentException("rps, duration and rows must be positive, warmup must not be negative");
+        }
+        repository = repository.toAbsolutePath().normalize();
+        if (report == null) {
+            report = repository.resolve("loadtest/target/loadtest-report.csv");
+        }
+        return new LoadTestOptions(repository, rows, seed, rps, warmupSeconds, durationSeconds, mix, pageSize,
+                decodeBatch, maxInFlight, requestTimeoutSeconds, backendPort, base64ServicePort, issuerPort,
+                serviceJvmArgs, report);
+    }
+
+    private static Map<Workload.Operation, Integer> parseMix(String value) {
+        Map<Workload.Operation, Integer> mix = new EnumMap<>(Workload.Operation.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected operation:weight but got: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weights must not be negative: " + entry);
+            }
+            mix.put(Workload.Operation.valueOf(parts[0].trim()), weight);
+        }
+        return mix;
+    }
+}
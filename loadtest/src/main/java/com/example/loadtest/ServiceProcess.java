@@ -0,0 +1,109 @@
+package com.example.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One of the Spring Boot applications, started from its executable war in a child JVM.
+ * Output goes to a log file next to the reports.
+ */
+final class ServiceProcess implements AutoCloseable {
+
+    private final String name;
+    private final Process process;
+    private final Path logFile;
+
+    private ServiceProcess(String name, Process process, Path logFile) {
+        this.name = name;
+        this.process = process;
+        this.logFile = logFile;
+    }
+
+    /**
+     * Starts an application with the {@code loadtest} profile, which is read from
+     * {@code loadtest/config/<name>/application-loadtest.properties} rather than from the war.
+     *
+     * @param name A short name used in messages, for the log file and for the profile directory.
+     * @param war The executable war.
+     * @param configDirectory The directory holding the application's {@code loadtest} profile.
+     * @param jvmArgs Extra JVM options, e.g. heap size.
+     * @param appArgs Spring properties as {@code --key=value} arguments.
+     * @param logDirectory Where the log file is written.
+     * @return The running process.
+     * @throws IOException If the war does not exist or the process cannot be started.
+     */
+    static ServiceProcess start(String name, Path war, Path configDirectory, List<String> jvmArgs, List<String> appArgs,
+                                Path logDirectory) throws IOException {
+        if (!Files.isRegularFile(war)) {
+            throw new IOException(war + " not found; run 'mvn package' in the " + name + " project first");
+        }
+        if (!Files.isDirectory(configDirectory)) {
+            throw new IOException(configDirectory + " not found");
+        }
+        List<String> command = new ArrayList<>();
+        command.add(LoadTest.javaExecutable());
+        command.addAll(jvmArgs);
+        command.add("-jar");
+        command.add(war.toString());
+        command.add("--spring.profiles.active=loadtest");
+        // A directory URI ends with a slash, which makes Spring look for application-loadtest.properties in it.
+        command.add("--spring.config.additional-location=" + configDirectory.toAbsolutePath().toUri());
+        command.addAll(appArgs);
+
+        Path logFile = logDirectory.resolve("loadtest-" + name + ".log");
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile())
+                .start();
+        return new ServiceProcess(name, process, logFile);
+    }
+
+    /**
+     * Waits until the application answers HTTP requests. Any response counts, including 401 or 404.
+     *
+     * @param probe A request to send repeatedly.
+     * @param timeout How long to wait at most.
+     * @throws IOException If the process exits or does not answer in time.
+     */
+    void awaitReady(HttpClient client, HttpRequest probe, Duration timeout) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IOException(name + " exited with status " + process.exitValue() + "; see " + logFile);
+            }
+            try {
+                client.send(probe, HttpResponse.BodyHandlers.discarding());
+                return;
+            } catch (IOException e) {
+                Thread.sleep(500);
+            }
+        }
+        throw new IOException(name + " did not start within " + timeout.toSeconds() + " s; see " + logFile);
+    }
+
+    static URI uri(int port, String pathAndQuery) {
+        return URI.create("http://localhost:" + port + pathAndQuery);
+    }
+
+    @Override
+    public void close() {
+        process.destroy();
+        try {
+            if (!process.waitFor(15, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends a weighted mix of requests at a fixed arrival rate and records their latencies.
+ * <p>
+ * The load is open: requests are scheduled at {@code 1/rps} intervals no matter how long earlier ones take,
+ * and latency is measured from the scheduled send time. A slow server therefore shows up as growing latency
+ * instead of silently lowering the request rate (no coordinated omission). Requests that would exceed the
+ * in-flight limit are not sent and count as errors.
+ * <p>
+ * A decodedcodes response whose {@value #DECODED_READY_HEADER} header is false carries the undecoded rows the
+ * backend falls back to. Those are recorded apart, as {@value #DECODED_FALLBACK}, so the decodedcodes row only
+ * measures responses that were actually decoded.
+ */
+final class Workload {
+
+    /**
+     * The request kinds of the mix.
+     */
+    enum Operation {
+        /** GET /public/code/{id} on the backend, anonymous. */
+        lookup,
+        /** GET /private/codes with a random order and page size, as a regular user. */
+        sorted,
+        /** POST /decode on the Base64 service with a batch of encoded codes, as an admin. */
+        decode,
+        /** GET /private/decodedcodes on the backend (the whole decoded list), as an admin. */
+        decodedcodes
+    }
+
+    private static final String[] ORDER_FIELDS = {"code", "category", "name"};
+    private static final String[] DIRECTIONS = {"asc", "desc"};
+    private static final int DECODE_BODIES = 16;
+    private static final String DECODED_READY_HEADER = "X-Decoded-Ready";
+    private static final String DECODED_FALLBACK = "decodedcodes-fallback";
+
+    private enum Outcome { SUCCESS, FALLBACK, ERROR }
+
+    private final LoadTestOptions options;
+    private final HttpClient client;
+    private final List<String> codeIds;
+    private final String userToken;
+    private final String adminToken;
+    private final List<byte[]> decodeBodies;
+    private final Operation[] mixTable;
+    private final Map<Operation, LatencyRecorder> recorders = new EnumMap<>(Operation.class);
+    private final LatencyRecorder fallbackRecorder = new LatencyRecorder(DECODED_FALLBACK);
+
+    Workload(LoadTestOptions options, HttpClient client, List<String> codeIds, String userToken, String adminToken) {
+        this.options = options;
+        this.client = client;
+        this.codeIds = codeIds;
+        this.userToken = userToken;
+        this.adminToken = adminToken;
+        this.decodeBodies = buildDecodeBodies(codeIds, options.decodeBatch(), options.seed());
+        this.mixTable = buildMixTable(options.mix());
+        options.mix().forEach((operation, weight) -> {
+            if (weight > 0) {
+                recorders.put(operation, new LatencyRecorder(operation.name()));
+            }
+        });
+    }
+
+    /**
+     * Runs the warm-up and the measurement window.
+     *
+     * @return The per-operation results of the measurement window, in mix order.
+     */
+    List<LatencyRecorder.Result> run() throws InterruptedException {
+        SplittableRandom random = new SplittableRandom(options.seed());
+        Semaphore inFlight = new Semaphore(options.maxInFlight());
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / options.rps());
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(options.warmupSeconds());
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(options.durationSeconds());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long sequence = 0; ; sequence++) {
+                long scheduledAt = start + sequence * intervalNanos;
+                if (scheduledAt >= end) {
+                    break;
+                }
+                long wait;
+                while ((wait = scheduledAt - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Operation operation = mixTable[random.nextInt(mixTable.length)];
+                HttpRequest request = request(operation, random);
+                boolean measured = scheduledAt >= measureFrom;
+                if (!inFlight.tryAcquire()) {
+                    if (measured) {
+                        recorders.get(operation).record(System.nanoTime() - scheduledAt, false);
+                    }
+                    continue;
+                }
+                executor.execute(() -> {
+                    try {
+                        Outcome outcome = send(operation, request);
+                        if (measured) {
+                            LatencyRecorder recorder = outcome == Outcome.FALLBACK
+                                    ? fallbackRecorder
+                                    : recorders.get(operation);
+                            recorder.record(System.nanoTime() - scheduledAt, outcome != Outcome.ERROR);
+                        }
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+
+        double measuredSeconds = options.durationSeconds();
+        List<LatencyRecorder.Result> results = new ArrayList<>();
+        for (LatencyRecorder recorder : recorders.values()) {
+            results.add(recorder.result(measuredSeconds));
+        }
+        LatencyRecorder.Result fallbacks = fallbackRecorder.result(measuredSeconds);
+        if (fallbacks.requests() > 0) {
+            results.add(fallbacks);
+        }
+        return results;
+    }
+
+    private Outcome send(Operation operation, HttpRequest request) {
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            int status = response.statusCode();
+            if (status < 200 || status >= 400) {
+                return Outcome.ERROR;
+            }
+            if (operation == Operation.decodedcodes
+                    && !response.headers().firstValue(DECODED_READY_HEADER).orElse("false").equals("true")) {
+                return Outcome.FALLBACK;
+            }
+            return Outcome.SUCCESS;
+        } catch (IOException e) {
+            return Outcome.ERROR;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Outcome.ERROR;
+        }
+    }
+
+    private HttpRequest request(Operation operation, SplittableRandom random) {
+        Duration timeout = Duration.ofSeconds(options.requestTimeoutSeconds());
+        return switch (operation) {
+            case lookup -> HttpRequest.newBuilder(ServiceProcess.uri(options.backendPort(),
+                            "/public/code/" + codeIds.get(random.nextInt(codeIds.size()))))
+                    .timeout(timeout)
+                    .GET()
+                    .build();
+            case sorted -> HttpRequest.newBuilder(ServiceProcess.uri(options.backendPort(),
+                            "/private/codes?orderby=" + ORDER_FIELDS[random.nextInt(ORDER_FIELDS.length)]
+                                    + "&orderbydirection=" + DIRECTIONS[random.nextInt(DIRECTIONS.length)]
+                                    + "&limit=" + options.pageSize()))
+                    .timeout(timeout)
+                    .header("Authorization", "Bearer " + userToken)
+                    .GET()
+                    .build();
+            case decode -> HttpRequest.newBuilder(ServiceProcess.uri(options.base64ServicePort(), "/decode"))
+                    .timeout(timeout)
+                    .header("Authorization", "Bearer " + adminToken)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(decodeBodies.get(random.nextInt(decodeBodies.size()))))
+                    .build();
+            case decodedcodes -> HttpRequest.newBuilder(ServiceProcess.uri(options.backendPort(), "/private/decodedcodes"))
+                    .timeout(timeout)
+                    .header("Authorization", "Bearer " + adminToken)
+                    .GET()
+                    .build();
+        };
+    }
+
+    /**
+     * Pre-builds a few request bodies for the decode operation, every other code with an encoded name and type.
+     */
+    private static List<byte[]> buildDecodeBodies(List<String> codeIds, int batchSize, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        ObjectMapper mapper = new ObjectMapper();
+        List<byte[]> bodies = new ArrayList<>(DECODE_BODIES);
+        for (int body = 0; body < DECODE_BODIES; body++) {
+            List<Map<String, String>> codes = new ArrayList<>(batchSize);
+            for (int i = 0; i < batchSize; i++) {
+                String id = codeIds.get(random.nextInt(codeIds.size()));
+                boolean encoded = i % 2 == 0;
+                Map<String, String> code = new LinkedHashMap<>();
+                code.put("code", id);
+                code.put("type", encoded ? encode("catA") : "catA");
+                code.put("name", encoded ? encode(id + " load test " + random.nextInt(1000)) : id + " plain");
+                codes.add(code);
+            }
+            try {
+                bodies.add(mapper.writeValueAsBytes(codes));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return bodies;
+    }
+
+    private static Operation[] buildMixTable(Map<Operation, Integer> mix) {
+        List<Operation> table = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                table.add(operation);
+            }
+        });
+        if (table.isEmpty()) {
+            throw new IllegalArgumentException("The mix must give at least one operation a positive weight");
+        }
+        return table.toArray(Operation[]::new);
+    }
+
+    private static String encode(String value) {
+        return "base64:" + Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
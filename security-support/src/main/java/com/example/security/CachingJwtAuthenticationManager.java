@@ -0,0 +1,137 @@
+package com.example.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authenticates bearer tokens like {@link JwtAuthenticationProvider}, but remembers each token it has accepted,
+ * so that repeated requests with the same token skip the signature check, the claim validation and the
+ * role conversion.
+ * <p>
+ * Entries are keyed by the SHA-256 hash of the token and hold the decoded {@link Jwt} and its granted authorities.
+ * An entry expires when the token does, and after 'app.security.token-cache.max-ttl-ms' at the latest; the cache holds
+ * at most 'app.security.token-cache.max-size' tokens. Rejected tokens are not cached. When a key set refresh drops a
+ * signing key, every token accepted before is validated again on its next use.
+ * Statistics are published as cache 'jwtAuthentications'.
+ */
+public final class CachingJwtAuthenticationManager implements AuthenticationManager {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final JwtAuthenticationProvider provider;
+    private final RefreshingJwkSource jwkSource;
+    private final Cache<TokenKey, ValidatedToken> cache;
+
+    /**
+     * @param provider Validates tokens on a cache miss and converts them to authentications.
+     * @param jwkSource The key source the provider's decoder verifies signatures with.
+     * @param maxSize The maximum number of cached tokens.
+     * @param maxTtlMs The longest time a token stays cached, whatever its expiry.
+     * @param meterRegistry Receives the cache statistics.
+     */
+    public CachingJwtAuthenticationManager(JwtAuthenticationProvider provider, RefreshingJwkSource jwkSource,
+                                           long maxSize, long maxTtlMs, MeterRegistry meterRegistry) {
+        this.provider = provider;
+        this.jwkSource = jwkSource;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry(TimeUnit.MILLISECONDS.toNanos(maxTtlMs)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwtAuthentications");
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        if (!(authentication instanceof BearerTokenAuthenticationToken bearer)) {
+            return null;
+        }
+        TokenKey key = TokenKey.of(bearer.getToken());
+        ValidatedToken validated = cache.getIfPresent(key);
+        long revision = jwkSource.getRevision();
+        if (validated == null || validated.keyRevision() != revision) {
+            Authentication result = provider.authenticate(bearer);
+            if (result instanceof JwtAuthenticationToken token) {
+                cache.put(key, new ValidatedToken(token.getToken(), token.getAuthorities(), revision));
+            }
+            return result;
+        }
+        // A new token per request, so request details are not shared between requests.
+        JwtAuthenticationToken result = new JwtAuthenticationToken(validated.jwt(), validated.authorities());
+        result.setDetails(bearer.getDetails());
+        return result;
+    }
+
+    /**
+     * A token that passed validation, with the authorities it was granted.
+     *
+     * @param jwt The decoded token.
+     * @param authorities The authorities resolved from its claims.
+     * @param keyRevision The key set revision it was validated against.
+     */
+    private record ValidatedToken(Jwt jwt, Collection<GrantedAuthority> authorities, long keyRevision) {
+    }
+
+    /**
+     * The SHA-256 hash of a token.
+     */
+    private record TokenKey(long first, long second, long third, long fourth) {
+
+        static TokenKey of(String token) {
+            MessageDigest digest = SHA_256.get();
+            ByteBuffer hash = ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+            return new TokenKey(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+        }
+    }
+
+    /**
+     * Expires an entry when its token expires, or after the maximum time to live if that comes first.
+     */
+    private record TokenExpiry(long maxTtlNanos) implements Expiry<TokenKey, ValidatedToken> {
+
+        @Override
+        public long expireAfterCreate(TokenKey key, ValidatedToken value, long currentTime) {
+            Instant expiresAt = value.jwt().getExpiresAt();
+            if (expiresAt == null) {
+                return maxTtlNanos;
+            }
+            long remainingNanos = TimeUnit.MILLISECONDS.toNanos(expiresAt.toEpochMilli() - System.currentTimeMillis());
+            return Math.max(0, Math.min(maxTtlNanos, remainingNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenKey key, ValidatedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(TokenKey key, ValidatedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
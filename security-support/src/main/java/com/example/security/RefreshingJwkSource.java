@@ -0,0 +1,228 @@
+package com.example.security;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.text.ParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The issuer's signing keys, fetched when the application starts and refreshed in the background,
+ * so that no request waits for the JWKS round trip.
+ * <p>
+ * The JWKS location comes from 'spring.security.oauth2.resourceserver.jwt.jwk-set-uri' or, if that is not set,
+ * from the issuer's OpenID discovery document. The key set is re-fetched every 'app.security.jwks.refresh-interval-ms';
+ * a failed fetch (e.g. the issuer is still starting) is retried after {@link #MIN_REFRESH_INTERVAL_MS}.
+ * A token signed with a key that is not in the current set triggers an immediate re-fetch, at most once per
+ * {@link #MIN_REFRESH_INTERVAL_MS}, so key rotation does not have to wait for the next scheduled refresh.
+ * <p>
+ * Every fetch runs on the single refresher thread. A request with an unknown key asks for a re-fetch and waits for
+ * it, at most {@link #MAX_MISS_WAIT_MS}, before looking the key up again; the same applies to requests that arrive
+ * before the first fetch has finished. While the re-fetch is held back by {@link #MIN_REFRESH_INTERVAL_MS}, such a
+ * request is rejected without waiting, so tokens naming made-up keys cannot tie up request threads.
+ */
+public final class RefreshingJwkSource implements JWKSource<SecurityContext>, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshingJwkSource.class);
+
+    /** Smallest gap between two fetches, also the retry delay after a failed fetch. */
+    static final long MIN_REFRESH_INTERVAL_MS = 10_000;
+
+    /** Longest time a request with an unknown key waits for the re-fetch it asked for. */
+    static final long MAX_MISS_WAIT_MS = 5_000;
+
+    private final RestTemplate restTemplate;
+    private final String issuerUri;
+    private final long refreshIntervalMs;
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("jwks-refresh").daemon().factory());
+
+    private final AtomicBoolean refreshRequested = new AtomicBoolean();
+
+    private volatile JWKSet jwkSet = new JWKSet();
+    private volatile long revision;
+    /** Completes when the fetch after the current one (or the one in progress) ends, whatever its outcome. */
+    private volatile CompletableFuture<Void> nextFetch = new CompletableFuture<>();
+    private volatile boolean fetched;
+    private volatile long lastFetchNanos;
+
+    // Only used on the refresher thread.
+    private String jwkSetUri;
+
+    /**
+     * @param restTemplate Client for the discovery document and the key set.
+     * @param issuerUri The issuer, used to discover the key set location; may be null if {@code jwkSetUri} is set.
+     * @param jwkSetUri The key set location, or null to discover it.
+     * @param refreshIntervalMs Time between scheduled refreshes.
+     */
+    public RefreshingJwkSource(RestTemplate restTemplate, String issuerUri, String jwkSetUri, long refreshIntervalMs) {
+        if (issuerUri == null && jwkSetUri == null) {
+            throw new IllegalArgumentException("Either an issuer URI or a JWK set URI is required");
+        }
+        this.restTemplate = restTemplate;
+        this.issuerUri = issuerUri;
+        this.jwkSetUri = jwkSetUri;
+        this.refreshIntervalMs = Math.max(MIN_REFRESH_INTERVAL_MS, refreshIntervalMs);
+    }
+
+    /**
+     * Fetches the key set in the background right away and then keeps it fresh.
+     */
+    public void start() {
+        scheduleRefresh(0);
+    }
+
+    @Override
+    public void close() {
+        refresher.shutdownNow();
+        nextFetch.complete(null);
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) {
+        // Read before selecting, so a fetch that ends in between still wakes this request.
+        CompletableFuture<Void> fetch = nextFetch;
+        List<JWK> keys = jwkSelector.select(jwkSet);
+        if (keys.isEmpty() && requestRefresh()) {
+            awaitFetch(fetch);
+            keys = jwkSelector.select(jwkSet);
+        }
+        return keys;
+    }
+
+    /**
+     * @return A number that changes whenever a refresh drops keys of the previous set. Tokens validated
+     * under an older revision may have been signed with a key that is no longer trusted.
+     */
+    public long getRevision() {
+        return revision;
+    }
+
+    private void scheduleRefresh(long delayMs) {
+        try {
+            refresher.schedule(() -> scheduleRefresh(fetch() ? refreshIntervalMs : MIN_REFRESH_INTERVAL_MS),
+                    delayMs, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            log.debug("JWKS refresher stopped: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Asks the refresher thread for a re-fetch. Requests made while one is pending are covered by that one.
+     *
+     * @return True if a fetch is running or about to run, so waiting for it is worthwhile; false if
+     * {@link #MIN_REFRESH_INTERVAL_MS} holds it back or the refresher has stopped.
+     */
+    private boolean requestRefresh() {
+        boolean due = !fetched
+                || System.nanoTime() - lastFetchNanos >= TimeUnit.MILLISECONDS.toNanos(MIN_REFRESH_INTERVAL_MS);
+        if (refreshRequested.compareAndSet(false, true)) {
+            try {
+                refresher.execute(this::refreshOnRequest);
+            } catch (RejectedExecutionException e) {
+                refreshRequested.set(false);
+                log.debug("JWKS refresher stopped: {}", e.getMessage());
+                return false;
+            }
+        }
+        return due;
+    }
+
+    private static void awaitFetch(CompletableFuture<Void> fetch) {
+        try {
+            fetch.get(MAX_MISS_WAIT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.debug("Gave up waiting for the signing keys: {}", e.toString());
+        }
+    }
+
+    /**
+     * Fetches the key set for {@link #requestRefresh()}, once {@link #MIN_REFRESH_INTERVAL_MS} has passed since the
+     * previous fetch.
+     */
+    private void refreshOnRequest() {
+        long waitNanos = fetched
+                ? lastFetchNanos + TimeUnit.MILLISECONDS.toNanos(MIN_REFRESH_INTERVAL_MS) - System.nanoTime()
+                : 0;
+        if (waitNanos > 0) {
+            refresher.schedule(this::refreshOnRequest, waitNanos, TimeUnit.NANOSECONDS);
+            return;
+        }
+        try {
+            fetch();
+        } finally {
+            refreshRequested.set(false);
+        }
+    }
+
+    /**
+     * Fetches and publishes the current key set. Failures are logged and leave the previous set in place.
+     * Runs on the refresher thread only.
+     *
+     * @return True if the key set was fetched.
+     */
+    private boolean fetch() {
+        try {
+            if (jwkSetUri == null) {
+                jwkSetUri = discoverJwkSetUri();
+            }
+            String body = restTemplate.getForObject(jwkSetUri, String.class);
+            if (body == null) {
+                throw new IllegalStateException("Empty response");
+            }
+            JWKSet next = JWKSet.parse(body);
+            if (!next.getKeys().containsAll(jwkSet.getKeys())) {
+                revision++;
+            }
+            jwkSet = next;
+            log.debug("Fetched {} signing keys from {}.", next.getKeys().size(), jwkSetUri);
+            return true;
+        } catch (RestClientException | ParseException | IllegalStateException e) {
+            log.warn("Failed to fetch signing keys from {}: {}", jwkSetUri != null ? jwkSetUri : issuerUri, e.getMessage());
+            return false;
+        } finally {
+            // Measured from the end, so a request that arrives during a slow fetch still waits for it.
+            lastFetchNanos = System.nanoTime();
+            fetched = true;
+            CompletableFuture<Void> done = nextFetch;
+            nextFetch = new CompletableFuture<>();
+            done.complete(null);
+        }
+    }
+
+    private String discoverJwkSetUri() {
+        String configurationUri = issuerUri.endsWith("/")
+                ? issuerUri + ".well-known/openid-configuration"
+                : issuerUri + "/.well-known/openid-configuration";
+        Map<String, Object> configuration = restTemplate.exchange(configurationUri, HttpMethod.GET,
+                null, new ParameterizedTypeReference<Map<String, Object>>() {}).getBody();
+        if (configuration == null || !issuerUri.equals(configuration.get("issuer"))) {
+            throw new IllegalStateException("Discovery document at " + configurationUri + " does not describe issuer " + issuerUri);
+        }
+        Object location = configuration.get("jwks_uri");
+        if (!(location instanceof String uri)) {
+            throw new IllegalStateException("Discovery document at " + configurationUri + " has no jwks_uri");
+        }
+        return uri;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.security;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.OAuth2ResourceServerProperties;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.jwt.JwtClaimValidator;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bearer token validation for a resource server, imported by the security configuration of each service.
+ * <p>
+ * The issuer's signing keys are fetched at startup and kept fresh in the background ({@link RefreshingJwkSource}),
+ * and validated tokens are cached with their authorities ({@link CachingJwtAuthenticationManager}), so a client
+ * that repeats its token pays for signature verification and role mapping once. The importing service supplies
+ * the {@link JwtAuthenticationConverter} that maps claims to authorities, and passes the authentication manager
+ * to its filter chain.
+ */
+@Configuration(proxyBeanMethods = false)
+public class TokenValidationConfig {
+
+    @Value("${app.security.jwks.refresh-interval-ms:300000}")
+    private long jwksRefreshIntervalMs;
+
+    @Value("${app.security.token-cache.max-size:10000}")
+    private long tokenCacheMaxSize;
+
+    @Value("${app.security.token-cache.max-ttl-ms:300000}")
+    private long tokenCacheMaxTtlMs;
+
+    /**
+     * Creates the issuer's key source and starts fetching the keys, so the first request does not wait for them.
+     *
+     * @param properties The resource server settings naming the issuer or its key set.
+     * @param restTemplateBuilder Builder for the client that fetches the keys.
+     * @return The started key source.
+     */
+    @Bean(destroyMethod = "close")
+    public RefreshingJwkSource jwkSource(OAuth2ResourceServerProperties properties,
+                                         RestTemplateBuilder restTemplateBuilder) {
+        RefreshingJwkSource jwkSource = new RefreshingJwkSource(
+                restTemplateBuilder
+                        .setConnectTimeout(Duration.ofSeconds(5))
+                        .setReadTimeout(Duration.ofSeconds(10))
+                        .build(),
+                properties.getJwt().getIssuerUri(),
+                properties.getJwt().getJwkSetUri(),
+                jwksRefreshIntervalMs);
+        jwkSource.start();
+        return jwkSource;
+    }
+
+    /**
+     * Creates a JwtDecoder over the prefetched keys. Validates the same claims as Spring Boot's default decoder:
+     * timestamps, the configured issuer and, if configured, the audience.
+     *
+     * @param properties The resource server settings.
+     * @param jwkSource The signing keys.
+     * @return The configured JwtDecoder.
+     */
+    @Bean
+    public JwtDecoder jwtDecoder(OAuth2ResourceServerProperties properties, RefreshingJwkSource jwkSource) {
+        OAuth2ResourceServerProperties.Jwt jwt = properties.getJwt();
+        Set<JWSAlgorithm> algorithms = jwt.getJwsAlgorithms().stream()
+                .map(JWSAlgorithm::parse)
+                .collect(Collectors.toSet());
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(algorithms, jwkSource));
+        // Claims are checked by the validators below.
+        processor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(processor);
+        OAuth2TokenValidator<Jwt> validator = jwt.getIssuerUri() != null
+                ? JwtValidators.createDefaultWithIssuer(jwt.getIssuerUri())
+                : JwtValidators.createDefault();
+        List<String> audiences = jwt.getAudiences();
+        if (!audiences.isEmpty()) {
+            validator = new DelegatingOAuth2TokenValidator<>(validator, new JwtClaimValidator<List<String>>(
+                    JwtClaimNames.AUD, aud -> aud != null && !Collections.disjoint(aud, audiences)));
+        }
+        decoder.setJwtValidator(validator);
+        return decoder;
+    }
+
+    /**
+     * Creates the authentication manager for the resource server's bearer tokens.
+     *
+     * @param jwtDecoder Decodes and validates tokens on a cache miss.
+     * @param jwtAuthenticationConverter The service's mapping from token claims to authorities.
+     * @param jwkSource The signing keys the decoder verifies against.
+     * @param meterRegistry Receives the token cache statistics.
+     * @return The caching authentication manager.
+     */
+    @Bean
+    public CachingJwtAuthenticationManager jwtAuthenticationManager(JwtDecoder jwtDecoder,
+                                                                    JwtAuthenticationConverter jwtAuthenticationConverter,
+                                                                    RefreshingJwkSource jwkSource,
+                                                                    MeterRegistry meterRegistry) {
+        JwtAuthenticationProvider provider = new JwtAuthenticationProvider(jwtDecoder);
+        provider.setJwtAuthenticationConverter(jwtAuthenticationConverter);
+        return new CachingJwtAuthenticationManager(provider, jwkSource, tokenCacheMaxSize, tokenCacheMaxTtlMs,
+                meterRegistry);
+    }
+}
@@ -0,0 +1,307 @@
+package com.example.datagen;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.SplittableRandom;
+
+/**
+ * Generates synthetic data files in the format CodeDataService loads: a JSON array whose first row is the
+ * header {@code ["code","type","name"]}, followed by one {@code [code, type, name]} array per row.
+ * <p>
+ * Rows are written as they are generated, so memory use does not depend on the row count and multi-GB files
+ * can be produced. The same settings and seed always produce the same file. Whether a row is malformed, a
+ * duplicate or an original is derived from the seed and its index, so a duplicate can pick an earlier original
+ * row and reuse its identifier, both recomputed rather than remembered.
+ * <p>
+ * The class only depends on the JDK and lives in its own module, out of the applications. Besides being called
+ * from the backend benchmarks it can be run straight from its source file, as the datagen container and the load
+ * test do:
+ * <pre>
+ * java DataFileGenerator.java --rows=1000000 --seed=42 --out=data.json
+ * </pre>
+ */
+public final class DataFileGenerator {
+
+    private static final String[] TYPES = {"catA", "catB", "catC", "catD", "catE"};
+    private static final String ALPHANUMERIC = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+    private static final String BASE64_PREFIX = "base64:";
+    private static final int NAME_SUFFIX_LENGTH = 32;
+
+    /** Keeps the row kind independent of the identifier letters, which hash the same seed and index. */
+    private static final long KIND_SALT = 0x9e3779b97f4a7c15L;
+
+    /** Earlier rows tried for the original of a duplicate before the row is written as an original instead. */
+    private static final int MAX_DUPLICATE_DRAWS = 64;
+
+    private DataFileGenerator() {
+    }
+
+    /**
+     * What to generate.
+     *
+     * @param rows The number of rows after the header, including duplicate and malformed rows.
+     * @param seed The random seed.
+     * @param nameBase64Ratio The share of rows whose name is Base64-encoded, from 0 to 1.
+     * @param typeBase64Ratio The share of rows whose type is Base64-encoded, from 0 to 1.
+     * @param duplicateRate The share of rows that repeat the identifier of an earlier row, from 0 to 1.
+     * @param malformedRate The share of rows that CodeDataService skips as invalid, from 0 to 1.
+     */
+    public record Settings(long rows, long seed, double nameBase64Ratio, double typeBase64Ratio,
+                           double duplicateRate, double malformedRate) {
+
+        public Settings {
+            if (rows < 0) {
+                throw new IllegalArgumentException("rows must not be negative");
+            }
+            checkRatio("nameBase64Ratio", nameBase64Ratio);
+            checkRatio("typeBase64Ratio", typeBase64Ratio);
+            checkRatio("duplicateRate", duplicateRate);
+            checkRatio("malformedRate", malformedRate);
+            if (duplicateRate + malformedRate > 1) {
+                throw new IllegalArgumentException("duplicateRate and malformedRate together must not exceed 1");
+            }
+        }
+
+        /**
+         * @return Settings with the encoding ratios of database/create-db.sh (one in 8 names, one in 64 types)
+         * and no duplicate or malformed rows.
+         */
+        public static Settings defaults(long rows, long seed) {
+            return new Settings(rows, seed, 1.0 / 8, 1.0 / 64, 0, 0);
+        }
+
+        private static void checkRatio(String name, double value) {
+            if (!(value >= 0 && value <= 1)) {
+                throw new IllegalArgumentException(name + " must be between 0 and 1");
+            }
+        }
+    }
+
+    /**
+     * What was generated.
+     *
+     * @param rows The number of rows after the header.
+     * @param encodedNames Valid rows with a Base64-encoded name.
+     * @param encodedTypes Valid rows with a Base64-encoded type.
+     * @param duplicates Valid rows that repeat an earlier identifier.
+     * @param malformed Rows that CodeDataService skips.
+     */
+    public record Summary(long rows, long encodedNames, long encodedTypes, long duplicates, long malformed) {
+    }
+
+    /**
+     * Writes a data file, replacing it if it exists.
+     *
+     * @param settings What to generate.
+     * @param file The target file.
+     * @return Counts of the generated rows.
+     * @throws IOException If the file cannot be written.
+     */
+    public static Summary write(Settings settings, Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            return write(settings, out);
+        }
+    }
+
+    /**
+     * Writes a data file to a stream. The stream is flushed but not closed.
+     *
+     * @param settings What to generate.
+     * @param out The target stream.
+     * @return Counts of the generated rows.
+     * @throws IOException If the stream cannot be written.
+     */
+    public static Summary write(Settings settings, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        SplittableRandom random = new SplittableRandom(settings.seed());
+        long encodedNames = 0;
+        long encodedTypes = 0;
+        long duplicates = 0;
+        long malformed = 0;
+
+        writer.write("[\n  [\"code\",\"type\",\"name\"]");
+        for (long index = 0; index < settings.rows(); index++) {
+            writer.write(",\n  ");
+            double kind = rowKind(settings.seed(), index);
+            if (kind < settings.malformedRate()) {
+                writeMalformedRow(writer, random, codeId(settings.seed(), index));
+                malformed++;
+                continue;
+            }
+
+            String code = codeId(settings.seed(), index);
+            if (!isOriginal(settings, kind)) {
+                String original = drawOriginal(settings, random, index);
+                if (original != null) {
+                    code = original;
+                    duplicates++;
+                }
+            }
+            String type = TYPES[random.nextInt(TYPES.length)];
+            String name = code + " " + randomText(random, NAME_SUFFIX_LENGTH);
+            if (random.nextDouble() < settings.typeBase64Ratio()) {
+                type = encode(type);
+                encodedTypes++;
+            }
+            if (random.nextDouble() < settings.nameBase64Ratio()) {
+                name = encode(name);
+                encodedNames++;
+            }
+            writeRow(writer, code, type, name);
+        }
+        writer.write("\n]\n");
+        writer.flush();
+        return new Summary(settings.rows(), encodedNames, encodedTypes, duplicates, malformed);
+    }
+
+    /**
+     * Returns the identifier of row {@code index}: two letters derived from the seed and the index, followed by
+     * the index. Identifiers are therefore unique per index, not in sorted order, and can be recomputed at any time.
+     *
+     * @param seed The generator seed.
+     * @param index The row index.
+     * @return The identifier.
+     */
+    public static String codeId(long seed, long index) {
+        long hash = mix(seed ^ mix(index));
+        return "" + (char) ('A' + Math.floorMod(hash, 26)) + (char) ('A' + Math.floorMod(hash >>> 32, 26)) + index;
+    }
+
+    /**
+     * @return A uniform value in [0, 1) that decides whether row {@code index} is malformed (below the malformed
+     * rate), a duplicate (below the sum of both rates) or an original.
+     */
+    private static double rowKind(long seed, long index) {
+        return (mix(seed ^ KIND_SALT ^ mix(index)) >>> 11) * 0x1.0p-53;
+    }
+
+    private static boolean isOriginal(Settings settings, double kind) {
+        return kind >= settings.malformedRate() + settings.duplicateRate();
+    }
+
+    /**
+     * Picks a random earlier row that was written with its own identifier, so that the duplicate repeats an
+     * identifier the loader actually keeps.
+     *
+     * @return The identifier of that row, or null if none was found within {@link #MAX_DUPLICATE_DRAWS} draws.
+     */
+    private static String drawOriginal(Settings settings, SplittableRandom random, long index) {
+        for (int draw = 0; draw < MAX_DUPLICATE_DRAWS && index > 0; draw++) {
+            long candidate = random.nextLong(index);
+            if (isOriginal(settings, rowKind(settings.seed(), candidate))) {
+                return codeId(settings.seed(), candidate);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes one of the shapes CodeDataService skips: a null row, a row with too few values, an object instead
+     * of an array, a nested array value, or a bare string.
+     */
+    private static void writeMalformedRow(Writer writer, SplittableRandom random, String code) throws IOException {
+        switch (random.nextInt(5)) {
+            case 0 -> writer.write("null");
+            case 1 -> writer.write("[" + quote(code) + ", \"catA\"]");
+            case 2 -> writer.write("{\"code\": " + quote(code) + ", \"type\": \"catA\", \"name\": \"object row\"}");
+            case 3 -> writer.write("[" + quote(code) + ", [\"catA\"], \"nested value\"]");
+            default -> writer.write(quote(code));
+        }
+    }
+
+    private static void writeRow(Writer writer, String code, String type, String name) throws IOException {
+        writer.write('[');
+        writer.write(quote(code));
+        writer.write(", ");
+        writer.write(quote(type));
+        writer.write(", ");
+        writer.write(quote(name));
+        writer.write(']');
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private static String randomText(SplittableRandom random, int length) {
+        char[] text = new char[length];
+        for (int i = 0; i < length; i++) {
+            text[i] = ALPHANUMERIC.charAt(random.nextInt(ALPHANUMERIC.length()));
+        }
+        return new String(text);
+    }
+
+    private static String encode(String value) {
+        return BASE64_PREFIX + Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * SplitMix64 finalizer.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * Command line entry point. Options (all optional):
+     * {@code --rows=N} (default 7), {@code --seed=N} (default: random), {@code --name-base64-ratio=R},
+     * {@code --type-base64-ratio=R}, {@code --duplicate-rate=R}, {@code --malformed-rate=R}, and
+     * {@code --out=PATH} (default: standard output). A summary is printed to standard error.
+     *
+     * @param args The options.
+     * @throws IOException If the output cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        Settings defaults = Settings.defaults(7, new SplittableRandom().nextLong());
+        long rows = defaults.rows();
+        long seed = defaults.seed();
+        double nameBase64Ratio = defaults.nameBase64Ratio();
+        double typeBase64Ratio = defaults.typeBase64Ratio();
+        double duplicateRate = defaults.duplicateRate();
+        double malformedRate = defaults.malformedRate();
+        String out = null;
+
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --option=value but got: " + arg);
+            }
+            String value = arg.substring(separator + 1);
+            switch (arg.substring(2, separator)) {
+                case "rows" -> rows = Long.parseLong(value);
+                case "seed" -> seed = Long.parseLong(value);
+                case "name-base64-ratio" -> nameBase64Ratio = Double.parseDouble(value);
+                case "type-base64-ratio" -> typeBase64Ratio = Double.parseDouble(value);
+                case "duplicate-rate" -> duplicateRate = Double.parseDouble(value);
+                case "malformed-rate" -> malformedRate = Double.parseDouble(value);
+                case "out" -> out = value;
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        Settings settings = new Settings(rows, seed, nameBase64Ratio, typeBase64Ratio, duplicateRate, malformedRate);
+        Summary summary = out != null ? write(settings, Path.of(out)) : write(settings, System.out);
+        System.err.printf("Generated %d rows with seed %d: %d encoded names, %d encoded types, %d duplicates, %d malformed.%n",
+                summary.rows(), seed, summary.encodedNames(), summary.encodedTypes(), summary.duplicates(), summary.malformed());
+    }
+}